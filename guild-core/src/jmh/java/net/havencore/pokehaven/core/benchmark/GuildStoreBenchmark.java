@@ -0,0 +1,78 @@
+package net.havencore.pokehaven.core.benchmark;
+
+import net.havencore.pokehaven.core.guilds.Faction;
+import net.havencore.pokehaven.core.guilds.Guild;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.GuildStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membership and faction operations on {@link GuildStore} at increasing roster sizes. Each benchmark undoes its
+ * own change so the data stays the same size for the whole trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GuildStoreBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int members;
+
+    private GuildStore data;
+    private Guild guild;
+    private UUID newcomer;
+    private UUID factionlessMember;
+    private String lastFactionName;
+    private long nextPlayer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = GuildFixtures.populated(members);
+        guild = data.getGuilds().get(GuildName.ROCKET);
+        newcomer = new UUID(2L, 0L);
+        // Members beyond the last full faction are factionless; add one that is guaranteed to be.
+        factionlessMember = new UUID(3L, 0L);
+        data.addPlayerToGuild(GuildName.ROCKET, factionlessMember);
+        lastFactionName = GuildFixtures.factionName(GuildName.ROCKET, guild.getFactions().size() - 1);
+    }
+
+    @Benchmark
+    public GuildName joinAndLeave() {
+        data.addPlayerToGuild(GuildName.ROCKET, newcomer);
+        GuildName joined = data.getGuildOfPlayer(newcomer);
+        data.removePlayerFromGuild(GuildName.ROCKET, newcomer);
+        return joined;
+    }
+
+    @Benchmark
+    public String createAndRemoveFaction() {
+        String name = "bench_" + nextPlayer++;
+        data.createFaction(GuildName.ROCKET, name, factionlessMember);
+        String faction = data.getFactionOfPlayer(factionlessMember);
+        data.removeFaction(GuildName.ROCKET, name);
+        return faction;
+    }
+
+    @Benchmark
+    public String renameFaction() {
+        data.renameFaction(GuildName.ROCKET, lastFactionName, "bench_renamed");
+        data.renameFaction(GuildName.ROCKET, "bench_renamed", lastFactionName);
+        return lastFactionName;
+    }
+
+    @Benchmark
+    public Optional<Faction> getFactionByName() {
+        return guild.getFactionByName(lastFactionName);
+    }
+}
@@ -1,12 +1,13 @@
-package net.havencore.pokehaven.guilds;
+package net.havencore.pokehaven.core.guilds;
 
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
-import net.havencore.pokehaven.guilds.exceptions.*;
+import net.havencore.pokehaven.core.guilds.exceptions.*;
 
 public class Faction {
-    private String name;
-    private UUID leader;
+    private volatile String name;
+    private volatile String key;
+    private volatile UUID leader;
     private final List<UUID> players = new CopyOnWriteArrayList<>();
 
     public Faction(String name, UUID leader, Collection<UUID> initialPlayers) {
@@ -23,6 +24,13 @@ public class Faction {
         return name;
     }
 
+    /**
+     * Lower-case form of the name used by the global faction name index.
+     */
+    public String getKey() {
+        return key;
+    }
+
     public UUID getLeader() {
         return leader;
     }
@@ -63,6 +71,7 @@ public class Faction {
             throw new FactionNamingException("Faction name cannot be null or blank");
         }
         this.name = newName;
+        this.key = newName.toLowerCase(Locale.ROOT);
     }
 
     private void setLeader(UUID leader) {
@@ -77,5 +86,6 @@ public class Faction {
             throw new FactionNamingException("Faction name cannot be null or blank");
         }
         this.name = name;
+        this.key = name.toLowerCase(Locale.ROOT);
     }
 }
@@ -1,13 +1,15 @@
-package net.havencore.pokehaven.guilds;
+package net.havencore.pokehaven.core.guilds;
 
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
-import net.havencore.pokehaven.guilds.exceptions.*;
+import java.util.concurrent.atomic.AtomicLong;
+import net.havencore.pokehaven.core.guilds.exceptions.*;
 
 public class Guild {
     private final GuildName name;
     private final List<UUID> players = new CopyOnWriteArrayList<>();
     private final List<Faction> factions = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
 
     public Guild(GuildName name) {
         this.name = Objects.requireNonNull(name, "Guild name cannot be null");
@@ -17,6 +19,17 @@ public class Guild {
         return name;
     }
 
+    /**
+     * Changes whenever {@link GuildStore} modifies this guild's roster or factions.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    void markChanged() {
+        version.incrementAndGet();
+    }
+
     public List<UUID> getPlayers() {
         return Collections.unmodifiableList(players);
     }
@@ -61,6 +74,20 @@ public class Guild {
         factions.add(faction);
     }
 
+    /**
+     * Appends players that {@link GuildStore} has already verified are not members, copying the roster once.
+     */
+    void addNewPlayers(Collection<UUID> newPlayers) {
+        players.addAll(newPlayers);
+    }
+
+    /**
+     * Appends factions whose names and members {@link GuildStore} has already validated.
+     */
+    void addValidatedFactions(Collection<Faction> newFactions) {
+        factions.addAll(newFactions);
+    }
+
     public void removeFaction(Faction faction) {
         factions.remove(faction);
     }
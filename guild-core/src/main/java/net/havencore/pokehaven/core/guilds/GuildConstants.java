@@ -1,4 +1,4 @@
-package net.havencore.pokehaven.guilds;
+package net.havencore.pokehaven.core.guilds;
 
 import java.util.List;
 
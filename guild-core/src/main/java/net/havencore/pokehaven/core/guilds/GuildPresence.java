@@ -0,0 +1,140 @@
+package net.havencore.pokehaven.core.guilds;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which players are online, grouped by guild and faction. The host reports logins and logouts through
+ * {@link #online(UUID)} and {@link #offline(UUID)}; the owning {@link GuildStore} reports every membership change of an
+ * online player, so each update moves one player between two sets and queries never scan the guild rosters or the
+ * list of online players. Factions are keyed by identity, so renames need no update.
+ *
+ * <p>Updates are serialized on this object. A login reads the player's membership under the same monitor that
+ * membership changes are applied under, so a change racing a login is never lost. Queries are lock-free and return
+ * live, weakly consistent views; safe to call from any thread.
+ */
+public final class GuildPresence {
+    private record Placement(GuildName guild, Faction faction) {
+    }
+
+    private static final Placement NONE = new Placement(null, null);
+
+    private final GuildStore store;
+    private final Map<UUID, Placement> online = new ConcurrentHashMap<>();
+    private final Map<GuildName, Set<UUID>> guilds = new EnumMap<>(GuildName.class);
+    private final Map<Faction, Set<UUID>> factions = new ConcurrentHashMap<>();
+
+    GuildPresence(GuildStore store) {
+        this.store = store;
+        for (GuildName name : GuildName.values()) {
+            guilds.put(name, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Marks the player online in their current guild and faction. Calling it again for an online player, e.g. after a
+     * respawn replaced their entity, re-reads their membership and is otherwise a no-op.
+     */
+    public synchronized void online(UUID player) {
+        Faction faction = store.getFactionForPlayer(player).orElse(null);
+        move(player, online.getOrDefault(player, NONE), placement(store.getGuildOfPlayer(player), faction));
+    }
+
+    public synchronized void offline(UUID player) {
+        Placement placement = online.remove(player);
+        if (placement != null) {
+            leave(player, placement);
+        }
+    }
+
+    /**
+     * Called by the store after the player's guild or faction changed, with the new values. Ignored for offline
+     * players.
+     */
+    synchronized void update(UUID player, GuildName guild, Faction faction) {
+        Placement current = online.get(player);
+        if (current != null) {
+            move(player, current, placement(guild, faction));
+        }
+    }
+
+    /**
+     * Called by the store after a faction was removed; its members' faction is cleared without visiting them one by
+     * one.
+     */
+    synchronized void removed(Faction faction) {
+        Set<UUID> members = factions.remove(faction);
+        if (members != null) {
+            for (UUID player : members) {
+                online.computeIfPresent(player, (unused, placement) -> placement(placement.guild(), null));
+            }
+        }
+    }
+
+    // === Queries ===
+
+    public boolean isOnline(UUID player) {
+        return online.containsKey(player);
+    }
+
+    public int onlineCount() {
+        return online.size();
+    }
+
+    /**
+     * Online members of {@code guild}, as a live read-only view.
+     */
+    public Set<UUID> online(GuildName guild) {
+        return Collections.unmodifiableSet(guilds.get(guild));
+    }
+
+    public int onlineCount(GuildName guild) {
+        return guilds.get(guild).size();
+    }
+
+    /**
+     * Online members of {@code faction}, as a live read-only view. If none of its members has been online since the
+     * faction was created, an empty set that does not track later logins is returned instead.
+     */
+    public Set<UUID> online(Faction faction) {
+        Set<UUID> members = factions.get(faction);
+        return members == null ? Set.of() : Collections.unmodifiableSet(members);
+    }
+
+    public int onlineCount(Faction faction) {
+        Set<UUID> members = factions.get(faction);
+        return members == null ? 0 : members.size();
+    }
+
+    private static Placement placement(GuildName guild, Faction faction) {
+        return guild == null && faction == null ? NONE : new Placement(guild, faction);
+    }
+
+    private void move(UUID player, Placement from, Placement to) {
+        leave(player, from);
+        if (to.guild() != null) {
+            guilds.get(to.guild()).add(player);
+        }
+        if (to.faction() != null) {
+            factions.computeIfAbsent(to.faction(), unused -> ConcurrentHashMap.newKeySet()).add(player);
+        }
+        online.put(player, to);
+    }
+
+    private void leave(UUID player, Placement placement) {
+        if (placement.guild() != null) {
+            guilds.get(placement.guild()).remove(player);
+        }
+        if (placement.faction() != null) {
+            // Emptied sets are kept until the faction is removed so views handed out earlier stay live.
+            Set<UUID> members = factions.get(placement.faction());
+            if (members != null) {
+                members.remove(player);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package net.havencore.pokehaven.core.guilds;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Guild memberships and factions to be applied in one batch through {@link GuildStore#importRoster(GuildRoster)}.
+ */
+public record GuildRoster(Map<UUID, GuildName> members, List<FactionEntry> factions) {
+    public record FactionEntry(GuildName guild, String name, UUID leader, List<UUID> players) {
+    }
+
+    /**
+     * Outcome of an import. Present members were already in the guild the roster puts them in, e.g. when an export is
+     * imported again. Skipped entries conflicted with existing data or were inconsistent, e.g. a player who is already
+     * in another guild or a faction whose name is taken.
+     */
+    public record ImportResult(int membersAdded, int membersPresent, int membersSkipped, int factionsAdded,
+                               int factionsSkipped) {
+    }
+}
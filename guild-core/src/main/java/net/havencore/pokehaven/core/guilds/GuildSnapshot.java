@@ -0,0 +1,42 @@
+package net.havencore.pokehaven.core.guilds;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable copy of every guild's roster and factions, safe to read from any thread. Obtain one through
+ * {@link GuildStore#snapshot()}, which reuses the previous copy while nothing has changed.
+ *
+ * @param version the {@link GuildStore#getVersion()} the snapshot was taken at.
+ */
+public record GuildSnapshot(long version, Map<GuildName, GuildView> guilds) {
+    public record GuildView(GuildName name, List<UUID> players, List<FactionView> factions) {
+    }
+
+    public record FactionView(String name, UUID leader, List<UUID> players) {
+    }
+
+    public GuildView guild(GuildName name) {
+        return guilds.get(name);
+    }
+
+    /**
+     * Copies the given guilds. Membership lists are copy-on-write, so this may run off the server thread; each list
+     * is copied atomically, although concurrent changes to different lists may be only partly reflected.
+     */
+    static GuildSnapshot capture(long version, Map<GuildName, Guild> source) {
+        Map<GuildName, GuildView> guilds = new EnumMap<>(GuildName.class);
+        for (Guild guild : source.values()) {
+            List<FactionView> factions = new ArrayList<>(guild.getFactions().size());
+            for (Faction faction : guild.getFactions()) {
+                factions.add(new FactionView(faction.getName(), faction.getLeader(), List.copyOf(faction.getPlayers())));
+            }
+            guilds.put(guild.getName(), new GuildView(guild.getName(), List.copyOf(guild.getPlayers()), List.copyOf(factions)));
+        }
+        return new GuildSnapshot(version, Collections.unmodifiableMap(guilds));
+    }
+}
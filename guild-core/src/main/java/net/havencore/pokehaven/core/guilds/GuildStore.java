@@ -0,0 +1,746 @@
+package net.havencore.pokehaven.core.guilds;
+
+import net.havencore.pokehaven.core.guilds.exceptions.*;
+import net.havencore.pokehaven.core.metrics.Counter;
+import net.havencore.pokehaven.core.metrics.GuildMutationEvent;
+import net.havencore.pokehaven.core.metrics.HeapSize;
+import net.havencore.pokehaven.core.metrics.LatencyHistogram;
+import net.havencore.pokehaven.core.metrics.Metrics;
+import net.havencore.pokehaven.core.util.NGramIndex;
+import net.havencore.pokehaven.core.util.NameTrie;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Every guild's roster and factions, with the indexes that map players to their guild and faction and look up
+ * faction names. Mutations validate against the indexes and keep them consistent, and are safe to call from any
+ * thread. Has no Minecraft dependencies: the mod's {@code GuildSavedData} persists a store and delegates to it, while
+ * unit tests and benchmarks use it directly.
+ */
+public class GuildStore {
+    private final EnumMap<GuildName, Guild> guilds = new EnumMap<>(GuildName.class);
+    private final ConcurrentHashMap<UUID, GuildName> playerGuildMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Faction> playerFactionMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, GuildName> factionNameToGuildMap = new ConcurrentHashMap<>();
+    private final NameTrie factionNames = new NameTrie();
+    private final NGramIndex factionNameGrams = new NGramIndex();
+
+    // Mutations needing more than one lock take them in declaration order: playerGuildLock, factionNameLock,
+    // playerFactionLock.
+    private final ReentrantLock playerGuildLock = new ReentrantLock();
+    private final ReentrantLock playerFactionLock = new ReentrantLock();
+    private final ReentrantLock factionNameLock = new ReentrantLock();
+
+    /** Incremented on every membership, leadership or naming change. */
+    private final AtomicLong version = new AtomicLong();
+    private volatile GuildSnapshot snapshot;
+    private volatile GuildTraceRecorder trace;
+    private final GuildPresence presence = new GuildPresence(this);
+    private volatile MembershipListener membershipListener;
+
+    /**
+     * Told which online players' guild, faction, faction name or leadership changed. Called with the guild locks held,
+     * so implementations must only record the player and return.
+     */
+    @FunctionalInterface
+    public interface MembershipListener {
+        void membershipChanged(UUID player);
+    }
+
+    private static final Counter MUTATIONS = Metrics.counter("guild.mutations");
+    private static final Counter LOCK_CONTENDED = Metrics.counter("guild.lock.contended");
+    private static final LatencyHistogram LOCK_WAIT = Metrics.histogram("guild.lock.wait");
+    private static final LatencyHistogram LOCK_HELD = Metrics.histogram("guild.lock.held");
+
+    public GuildStore() {
+        for (GuildName name : GuildName.values()) {
+            guilds.put(name, new Guild(name));
+        }
+    }
+
+    /**
+     * Builds a store from previously saved guilds, indexing their members and factions. Guilds missing from
+     * {@code saved} start empty.
+     */
+    public static GuildStore of(Map<GuildName, Guild> saved) {
+        GuildStore store = new GuildStore();
+        for (Map.Entry<GuildName, Guild> e : saved.entrySet()) {
+            store.guilds.put(e.getKey(), e.getValue());
+            for (UUID player : e.getValue().getPlayers()) {
+                store.playerGuildMap.put(player, e.getKey());
+            }
+            for (Faction faction : e.getValue().getFactions()) {
+                store.factionNameToGuildMap.put(faction.getKey(), e.getKey());
+                store.factionNames.add(faction.getName());
+                store.factionNameGrams.add(faction.getName());
+                for (UUID member : faction.getPlayers()) {
+                    store.playerFactionMap.put(member, faction);
+                }
+            }
+        }
+        return store;
+    }
+
+    public Map<GuildName, Guild> getGuilds() {
+        return Collections.unmodifiableMap(new EnumMap<>(this.guilds));
+    }
+
+    /**
+     * Changes whenever any player's guild, faction or leadership, or any faction name changes. Used to tell when
+     * cached projections of this data are out of date.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    private void changed(GuildName guild) {
+        guilds.get(guild).markChanged();
+        version.incrementAndGet();
+        MUTATIONS.increment();
+    }
+
+    /**
+     * Takes {@code lock}, counting and timing the wait if another thread holds it. Returns the start of the hold for
+     * {@link #release}.
+     */
+    private static long acquire(ReentrantLock lock, GuildMutationEvent event) {
+        if (!lock.tryLock()) {
+            LOCK_CONTENDED.increment();
+            long waitStart = System.nanoTime();
+            lock.lock();
+            long waited = System.nanoTime() - waitStart;
+            LOCK_WAIT.record(waited);
+            event.lockWaited(waited);
+        }
+        return Metrics.start();
+    }
+
+    /**
+     * Releases {@code lock} and records how long it was held. Every lock a mutation takes is released through here, so
+     * a mutation holding several locks contributes one {@code guild.lock.held} sample per lock.
+     */
+    private static void release(ReentrantLock lock, long held) {
+        LOCK_HELD.recordSince(held);
+        lock.unlock();
+    }
+
+    /**
+     * Online members by guild and faction. Not persisted: the host reports logins and logouts, and every mutation
+     * here keeps it in step.
+     */
+    public GuildPresence presence() {
+        return presence;
+    }
+
+    /**
+     * Replaces the listener told about membership changes of online players (see {@link #presence()}); offline players
+     * are skipped, as hosts refresh anything derived from membership when a player logs in. Pass null to remove it.
+     */
+    public void setMembershipListener(MembershipListener listener) {
+        membershipListener = listener;
+    }
+
+    private void touched(UUID player) {
+        MembershipListener listener = membershipListener;
+        if (listener != null && presence.isOnline(player)) {
+            listener.membershipChanged(player);
+        }
+    }
+
+    private void touched(Collection<UUID> players) {
+        MembershipListener listener = membershipListener;
+        if (listener != null) {
+            for (UUID player : players) {
+                if (presence.isOnline(player)) {
+                    listener.membershipChanged(player);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells the listener about every online member of {@code faction}, without visiting offline members.
+     */
+    private void touchedOnline(Faction faction) {
+        MembershipListener listener = membershipListener;
+        if (listener != null) {
+            for (UUID player : presence.online(faction)) {
+                listener.membershipChanged(player);
+            }
+        }
+    }
+
+    /**
+     * Returns an immutable copy of all guilds, reusing the last one taken while the version is unchanged. Safe to call
+     * from any thread.
+     */
+    public GuildSnapshot snapshot() {
+        long current = version.get();
+        GuildSnapshot cached = snapshot;
+        if (cached != null && cached.version() == current) {
+            return cached;
+        }
+        GuildSnapshot captured = GuildSnapshot.capture(current, guilds);
+        snapshot = captured;
+        return captured;
+    }
+
+    // === Guild Membership ===
+
+    /** Returns the GuildName the player belongs to, or null if none. */
+    public GuildName getGuildOfPlayer(UUID player) {
+        return playerGuildMap.get(player);
+    }
+
+    /** Returns the Guild instance for the player, or empty if none. */
+    public Optional<Guild> getGuildForPlayer(UUID player) {
+        GuildName name = playerGuildMap.get(player);
+        if (name == null) return Optional.empty();
+        return Optional.ofNullable(guilds.get(name));
+    }
+
+    public void addPlayerToGuild(GuildName guild, UUID player) {
+        GuildMutationEvent event = GuildMutationEvent.start();
+        long guildHeld = acquire(playerGuildLock, event);
+        try {
+            if (playerGuildMap.containsKey(player)) {
+                throw new GuildMembershipException("Player already in a guild");
+            }
+            playerGuildMap.put(player, guild);
+            guilds.get(guild).addPlayer(player);
+            changed(guild);
+            presence.update(player, guild, null);
+            touched(player);
+            GuildTraceRecorder recorder = trace;
+            if (recorder != null) recorder.join(guild, player);
+        } finally {
+            release(playerGuildLock, guildHeld);
+        }
+        event.finish("join", guild.name());
+    }
+
+    /**
+     * Removes the player from the guild and from their faction, if any. Faction leaders must hand over leadership or
+     * remove their faction first.
+     */
+    public void removePlayerFromGuild(GuildName guild, UUID player) {
+        GuildMutationEvent event = GuildMutationEvent.start();
+        long guildHeld = acquire(playerGuildLock, event);
+        long factionHeld = acquire(playerFactionLock, event);
+        try {
+            if (guild == null || playerGuildMap.get(player) != guild) return;
+            Faction faction = playerFactionMap.get(player);
+            if (faction != null) {
+                if (faction.getLeader().equals(player)) {
+                    throw new FactionLeadershipException(
+                            "Faction leaders cannot leave the guild while leading " + faction.getName());
+                }
+                faction.removePlayer(player);
+                playerFactionMap.remove(player);
+            }
+            playerGuildMap.remove(player);
+            guilds.get(guild).removePlayer(player);
+            changed(guild);
+            presence.update(player, null, null);
+            touched(player);
+            GuildTraceRecorder recorder = trace;
+            if (recorder != null) recorder.leave(guild, player);
+        } finally {
+            release(playerFactionLock, factionHeld);
+            release(playerGuildLock, guildHeld);
+        }
+        event.finish("leave", guild.name());
+    }
+
+    // === Faction Creation ===
+
+    public void createFaction(GuildName guild, String factionName, UUID leader, Collection<UUID> players) {
+        GuildMutationEvent event = GuildMutationEvent.start();
+        long guildHeld = acquire(playerGuildLock, event);
+        long nameHeld = acquire(factionNameLock, event);
+        long factionHeld = acquire(playerFactionLock, event);
+        try {
+            String key = factionName.toLowerCase(Locale.ROOT);
+            if (factionNameToGuildMap.containsKey(key)) {
+                throw new FactionNamingException("Faction name already exists globally");
+            }
+
+            Set<UUID> members = new LinkedHashSet<>(players);
+            members.add(leader);
+            for (UUID member : members) {
+                if (playerGuildMap.get(member) != guild) {
+                    throw new FactionMembershipException("Player not in guild: " + member);
+                }
+                if (playerFactionMap.containsKey(member)) {
+                    throw new FactionMembershipException("Player already in a faction: " + member);
+                }
+            }
+            Faction faction = new Faction(factionName, leader, members);
+            Guild g = guilds.get(guild);
+            g.addFaction(faction);
+
+            factionNameToGuildMap.put(key, guild);
+            factionNames.add(faction.getName());
+            factionNameGrams.add(faction.getName());
+            for (UUID member : members) {
+                playerFactionMap.put(member, faction);
+                presence.update(member, guild, faction);
+            }
+            touched(members);
+            changed(guild);
+            GuildTraceRecorder recorder = trace;
+            if (recorder != null) recorder.createFaction(guild, factionName, leader, members);
+        } finally {
+            release(playerFactionLock, factionHeld);
+            release(factionNameLock, nameHeld);
+            release(playerGuildLock, guildHeld);
+        }
+        event.finish("createFaction", guild.name());
+    }
+
+    public void createFaction(GuildName guild, String name, UUID leader) {
+        createFaction(guild, name, leader, List.of(leader));
+    }
+
+    public void removeFaction(GuildName guild, String factionName) {
+        GuildMutationEvent event = GuildMutationEvent.start();
+        long nameHeld = acquire(factionNameLock, event);
+        long factionHeld = acquire(playerFactionLock, event);
+        try {
+            Guild g = guilds.get(guild);
+            Optional<Faction> opt = g.getFactionByName(factionName);
+            if (opt.isEmpty()) throw new FactionNotFoundException("Faction does not exist");
+            Faction f = opt.get();
+
+            g.removeFaction(f);
+            factionNameToGuildMap.remove(f.getKey());
+            factionNames.remove(f.getName());
+            factionNameGrams.remove(f.getName());
+            for (UUID player : f.getPlayers()) {
+                playerFactionMap.remove(player, f);
+            }
+            touchedOnline(f);
+            presence.removed(f);
+            changed(guild);
+            GuildTraceRecorder recorder = trace;
+            if (recorder != null) recorder.removeFaction(guild, factionName);
+        } finally {
+            release(playerFactionLock, factionHeld);
+            release(factionNameLock, nameHeld);
+        }
+        event.finish("removeFaction", guild.name());
+    }
+
+    // === Faction Membership ===
+
+    /**
+     * Returns up to {@code limit} faction names, across all guilds, that start with {@code prefix} ignoring case.
+     */
+    public List<String> findFactionNames(String prefix, int limit) {
+        return factionNames.withPrefix(prefix, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} faction names, across all guilds, within {@code maxDistance} edits of {@code query}
+     * ignoring case, closest first.
+     */
+    public List<String> findSimilarFactionNames(String query, int maxDistance, int limit) {
+        return factionNameGrams.closest(query, maxDistance, limit);
+    }
+
+    /** Returns the lower-case name of the player's faction, or null if none. */
+    public String getFactionOfPlayer(UUID player){
+        Faction faction = playerFactionMap.get(player);
+        return faction == null ? null : faction.getKey();
+    }
+
+    /** Returns the player's faction, or empty if none. */
+    public Optional<Faction> getFactionForPlayer(UUID player) {
+        return Optional.ofNullable(playerFactionMap.get(player));
+    }
+
+    public void addPlayerToFaction(GuildName guild, String factionName, UUID player) {
+        GuildMutationEvent event = GuildMutationEvent.start();
+        long guildHeld = acquire(playerGuildLock, event);
+        long nameHeld = acquire(factionNameLock, event);
+        long factionHeld = acquire(playerFactionLock, event);
+        try {
+            Guild g = guilds.get(guild);
+            Optional<Faction> of = g.getFactionByName(factionName);
+            if (of.isEmpty()) throw new FactionNotFoundException("Faction not found");
+            Faction f = of.get();
+
+            if (playerGuildMap.get(player) != guild) {
+                throw new FactionMembershipException("Player not in guild");
+            }
+            Faction current = playerFactionMap.get(player);
+            if (current == f) return;
+            if (current != null) {
+                throw new FactionMembershipException("Player is already in faction " + current.getName());
+            }
+
+            f.addPlayer(player);
+            playerFactionMap.put(player, f);
+            presence.update(player, guild, f);
+            touched(player);
+            changed(guild);
+            GuildTraceRecorder recorder = trace;
+            if (recorder != null) recorder.joinFaction(guild, factionName, player);
+        } finally {
+            release(playerFactionLock, factionHeld);
+            release(factionNameLock, nameHeld);
+            release(playerGuildLock, guildHeld);
+        }
+        event.finish("joinFaction", guild.name());
+    }
+
+    public void removePlayerFromFaction(GuildName guild, String factionName, UUID player) {
+        GuildMutationEvent event = GuildMutationEvent.start();
+        long nameHeld = acquire(factionNameLock, event);
+        long factionHeld = acquire(playerFactionLock, event);
+        try {
+            Guild g = guilds.get(guild);
+            Optional<Faction> of = g.getFactionByName(factionName);
+            if (of.isEmpty()) throw new FactionNotFoundException("Faction not found");
+            Faction f = of.get();
+
+            if (playerFactionMap.get(player) != f) {
+                throw new FactionMembershipException("Player is not in faction");
+            }
+
+            f.removePlayer(player);
+            playerFactionMap.remove(player);
+            presence.update(player, guild, null);
+            touched(player);
+            changed(guild);
+            GuildTraceRecorder recorder = trace;
+            if (recorder != null) recorder.leaveFaction(guild, factionName, player);
+        } finally {
+            release(playerFactionLock, factionHeld);
+            release(factionNameLock, nameHeld);
+        }
+        event.finish("leaveFaction", guild.name());
+    }
+
+    // === Faction Leader ===
+
+    public void changeFactionLeader(GuildName guild, String factionName, UUID newLeader) {
+        GuildMutationEvent event = GuildMutationEvent.start();
+        long nameHeld = acquire(factionNameLock, event);
+        long factionHeld = acquire(playerFactionLock, event);
+        try {
+            Guild g = guilds.get(guild);
+            Optional<Faction> of = g.getFactionByName(factionName);
+            if (of.isEmpty()) throw new FactionNotFoundException("Faction not found");
+            Faction f = of.get();
+            UUID oldLeader = f.getLeader();
+            f.changeLeader(newLeader);
+            touched(oldLeader);
+            touched(newLeader);
+            changed(guild);
+            GuildTraceRecorder recorder = trace;
+            if (recorder != null) recorder.changeLeader(guild, factionName, newLeader);
+        } finally {
+            release(playerFactionLock, factionHeld);
+            release(factionNameLock, nameHeld);
+        }
+        event.finish("changeLeader", guild.name());
+    }
+
+    // === Faction Rename ===
+
+    public void renameFaction(GuildName guild, String oldName, String newName) {
+        GuildMutationEvent event = GuildMutationEvent.start();
+        long nameHeld = acquire(factionNameLock, event);
+        try {
+            String newKey = newName.toLowerCase(Locale.ROOT);
+            if (factionNameToGuildMap.containsKey(newKey)) {
+                throw new FactionNamingException("Faction name already exists globally: " + newName);
+            }
+
+            Guild g = guilds.get(guild);
+            Optional<Faction> of = g.getFactionByName(oldName);
+            if (of.isEmpty()) throw new FactionNotFoundException("Faction not found");
+
+            Faction f = of.get();
+            String oldKey = f.getKey();
+            String oldDisplayName = f.getName();
+            g.renameFaction(oldName, newName);
+
+            // Members reference the Faction itself, so a rename only touches the name index.
+            factionNameToGuildMap.remove(oldKey);
+            factionNameToGuildMap.put(newKey, guild);
+            factionNames.remove(oldDisplayName);
+            factionNames.add(f.getName());
+            factionNameGrams.remove(oldDisplayName);
+            factionNameGrams.add(f.getName());
+            touchedOnline(f);
+            changed(guild);
+            GuildTraceRecorder recorder = trace;
+            if (recorder != null) recorder.renameFaction(guild, oldName, newName);
+        } finally {
+            release(factionNameLock, nameHeld);
+        }
+        event.finish("renameFaction", guild.name());
+    }
+
+    // === Bulk Import ===
+
+    /**
+     * Applies a whole roster under a single acquisition of the membership locks. Members already in the roster's guild
+     * are counted as present; members already in another guild and factions that clash with existing names or
+     * memberships are skipped rather than failing the batch. Each guild's roster and faction list is copied once
+     * regardless of the batch size.
+     */
+    public GuildRoster.ImportResult importRoster(GuildRoster roster) {
+        GuildMutationEvent event = GuildMutationEvent.start();
+        long guildHeld = acquire(playerGuildLock, event);
+        long nameHeld = acquire(factionNameLock, event);
+        long factionHeld = acquire(playerFactionLock, event);
+        GuildRoster.ImportResult result;
+        try {
+            Map<GuildName, List<UUID>> newMembers = new EnumMap<>(GuildName.class);
+            int membersPresent = 0;
+            int membersSkipped = 0;
+            for (Map.Entry<UUID, GuildName> entry : roster.members().entrySet()) {
+                GuildName existing = playerGuildMap.putIfAbsent(entry.getKey(), entry.getValue());
+                if (existing == null) {
+                    newMembers.computeIfAbsent(entry.getValue(), unused -> new ArrayList<>()).add(entry.getKey());
+                    presence.update(entry.getKey(), entry.getValue(), null);
+                    touched(entry.getKey());
+                } else if (existing == entry.getValue()) {
+                    membersPresent++;
+                } else {
+                    membersSkipped++;
+                }
+            }
+            newMembers.forEach((guild, players) -> guilds.get(guild).addNewPlayers(players));
+
+            Map<GuildName, List<Faction>> newFactions = new EnumMap<>(GuildName.class);
+            int factionsSkipped = 0;
+            for (GuildRoster.FactionEntry entry : roster.factions()) {
+                Faction faction = validImport(entry);
+                if (faction == null) {
+                    factionsSkipped++;
+                    continue;
+                }
+                factionNameToGuildMap.put(faction.getKey(), entry.guild());
+                factionNames.add(faction.getName());
+                factionNameGrams.add(faction.getName());
+                for (UUID player : faction.getPlayers()) {
+                    playerFactionMap.put(player, faction);
+                    presence.update(player, entry.guild(), faction);
+                    touched(player);
+                }
+                newFactions.computeIfAbsent(entry.guild(), unused -> new ArrayList<>()).add(faction);
+            }
+            newFactions.forEach((guild, factions) -> guilds.get(guild).addValidatedFactions(factions));
+
+            Set<GuildName> touched = EnumSet.noneOf(GuildName.class);
+            touched.addAll(newMembers.keySet());
+            touched.addAll(newFactions.keySet());
+            touched.forEach(this::changed);
+            if (!touched.isEmpty()) {
+                GuildTraceRecorder recorder = trace;
+                if (recorder != null) recorder.importRoster(roster);
+            }
+            int membersAdded = newMembers.values().stream().mapToInt(List::size).sum();
+            int factionsAdded = newFactions.values().stream().mapToInt(List::size).sum();
+            result = new GuildRoster.ImportResult(membersAdded, membersPresent, membersSkipped, factionsAdded,
+                    factionsSkipped);
+        } finally {
+            release(playerFactionLock, factionHeld);
+            release(factionNameLock, nameHeld);
+            release(playerGuildLock, guildHeld);
+        }
+        event.finish("import", "all");
+        return result;
+    }
+
+    // === Memory ===
+
+    /**
+     * Estimates the heap retained by each guild's roster and factions and by each index, without taking any lock: the
+     * rosters are measured from {@link #snapshot()} and the indexes from their entry counts. Player UUIDs are counted
+     * once, with the roster that owns them, and faction names with their faction. Safe to call from any thread.
+     */
+    public List<HeapSize.Estimate> estimateFootprint() {
+        List<HeapSize.Estimate> estimates = new ArrayList<>();
+        GuildSnapshot current = snapshot();
+        long factionKeyBytes = 0;
+        for (GuildSnapshot.GuildView guild : current.guilds().values()) {
+            long players = guild.players().size();
+            estimates.add(new HeapSize.Estimate("guild." + guild.name().name().toLowerCase(Locale.ROOT) + ".roster",
+                    players, HeapSize.object(4 * HeapSize.REFERENCE) + HeapSize.object(8)
+                    + HeapSize.copyOnWriteList(players) + players * HeapSize.UUID));
+
+            long factionBytes = HeapSize.copyOnWriteList(guild.factions().size());
+            for (GuildSnapshot.FactionView faction : guild.factions()) {
+                long keyBytes = HeapSize.string(faction.name().toLowerCase(Locale.ROOT));
+                factionKeyBytes += keyBytes;
+                factionBytes += HeapSize.object(4 * HeapSize.REFERENCE) + HeapSize.string(faction.name()) + keyBytes
+                        + HeapSize.copyOnWriteList(faction.players().size());
+            }
+            estimates.add(new HeapSize.Estimate("guild." + guild.name().name().toLowerCase(Locale.ROOT) + ".factions",
+                    guild.factions().size(), factionBytes));
+        }
+
+        estimates.add(new HeapSize.Estimate("index.playerGuild", playerGuildMap.size(),
+                HeapSize.hashMap(playerGuildMap.size())));
+        estimates.add(new HeapSize.Estimate("index.playerFaction", playerFactionMap.size(),
+                HeapSize.hashMap(playerFactionMap.size())));
+        // Name keys are separate lower-case copies of the faction keys.
+        estimates.add(new HeapSize.Estimate("index.factionName", factionNameToGuildMap.size(),
+                HeapSize.hashMap(factionNameToGuildMap.size()) + factionKeyBytes));
+        int trieNodes = factionNames.nodeCount();
+        estimates.add(new HeapSize.Estimate("index.factionPrefix", trieNodes,
+                trieNodes * (HeapSize.object(2 * HeapSize.REFERENCE) + HeapSize.treeMap(0) + HeapSize.TREE_NODE)));
+        int grams = factionNameGrams.gramCount();
+        int postings = factionNameGrams.postingCount();
+        int gramNames = factionNameGrams.size();
+        estimates.add(new HeapSize.Estimate("index.factionGrams", postings,
+                HeapSize.hashMap(grams) + grams * (HeapSize.string("abc") + HeapSize.object(HeapSize.REFERENCE)
+                        + HeapSize.hashMap(0)) + postings * HeapSize.HASH_NODE + HeapSize.hashMap(gramNames)
+                        + gramNames * HeapSize.object(HeapSize.REFERENCE + Integer.BYTES) + factionKeyBytes));
+        return estimates;
+    }
+
+    // === Tracing ===
+
+    /**
+     * Starts recording every successful mutation to {@code file} (see {@link GuildTraceRecorder}), replacing any
+     * recording in progress. The current guilds are captured under all locks so no mutation slips between them and the
+     * first record; mutations wait only for that copy, while the header is compressed and written by the recorder's
+     * writer thread. A failure to write the file is reported through {@link GuildTraceRecorder#closed()}.
+     */
+    public GuildTraceRecorder startTrace(Path file) throws IOException {
+        stopTrace();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        GuildTraceRecorder recorder;
+        playerGuildLock.lock();
+        factionNameLock.lock();
+        playerFactionLock.lock();
+        try {
+            recorder = new GuildTraceRecorder(file, GuildSnapshot.capture(version.get(), guilds));
+            trace = recorder;
+        } finally {
+            playerFactionLock.unlock();
+            factionNameLock.unlock();
+            playerGuildLock.unlock();
+        }
+        recorder.start();
+        return recorder;
+    }
+
+    /**
+     * Stops the current recording, returning it, or null if none was running. Mutations from now on are not recorded;
+     * the file is finished in the background, see {@link GuildTraceRecorder#closed()}.
+     */
+    public GuildTraceRecorder stopTrace() {
+        GuildTraceRecorder recorder = trace;
+        trace = null;
+        if (recorder != null) {
+            recorder.close();
+        }
+        return recorder;
+    }
+
+    public GuildTraceRecorder getTrace() {
+        return trace;
+    }
+
+    // === Consistency ===
+
+    /**
+     * Cross-checks every index against the guild and faction rosters under all locks and describes each mismatch.
+     * An empty list means the data is consistent. Intended for tests and diagnostics; cost is linear in the data size.
+     */
+    public List<String> findInvariantViolations() {
+        playerGuildLock.lock();
+        factionNameLock.lock();
+        playerFactionLock.lock();
+        try {
+            List<String> violations = new ArrayList<>();
+            Set<UUID> rostered = new HashSet<>();
+            Set<Faction> factions = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Guild guild : guilds.values()) {
+                GuildName name = guild.getName();
+                for (UUID player : guild.getPlayers()) {
+                    if (!rostered.add(player)) {
+                        violations.add(player + " appears in more than one roster slot (" + name + ")");
+                    }
+                    if (playerGuildMap.get(player) != name) {
+                        violations.add(player + " is on the " + name + " roster but indexed as "
+                                + playerGuildMap.get(player));
+                    }
+                }
+                for (Faction faction : guild.getFactions()) {
+                    factions.add(faction);
+                    if (factionNameToGuildMap.get(faction.getKey()) != name) {
+                        violations.add("Faction " + faction.getName() + " of " + name + " is indexed under "
+                                + factionNameToGuildMap.get(faction.getKey()));
+                    }
+                    if (!faction.getPlayers().contains(faction.getLeader())) {
+                        violations.add("Faction " + faction.getName() + " is led by non-member " + faction.getLeader());
+                    }
+                    for (UUID player : faction.getPlayers()) {
+                        if (playerFactionMap.get(player) != faction) {
+                            violations.add(player + " is on faction " + faction.getName() + " but not indexed to it");
+                        }
+                        if (playerGuildMap.get(player) != name) {
+                            violations.add(player + " is in faction " + faction.getName() + " but not in guild " + name);
+                        }
+                    }
+                }
+            }
+            playerGuildMap.forEach((player, guild) -> {
+                if (!rostered.contains(player)) {
+                    violations.add(player + " is indexed to " + guild + " but missing from its roster");
+                }
+            });
+            playerFactionMap.forEach((player, faction) -> {
+                if (!factions.contains(faction)) {
+                    violations.add(player + " is indexed to removed faction " + faction.getName());
+                } else if (!faction.getPlayers().contains(player)) {
+                    violations.add(player + " is indexed to faction " + faction.getName() + " but not on its roster");
+                }
+            });
+            if (factionNameToGuildMap.size() != factions.size()) {
+                violations.add("Faction name index holds " + factionNameToGuildMap.size() + " names for "
+                        + factions.size() + " factions");
+            }
+            if (factionNames.size() != factions.size() || factionNameGrams.size() != factions.size()) {
+                violations.add("Faction name search indexes hold " + factionNames.size() + " and "
+                        + factionNameGrams.size() + " names for " + factions.size() + " factions");
+            }
+            return violations;
+        } finally {
+            playerFactionLock.unlock();
+            factionNameLock.unlock();
+            playerGuildLock.unlock();
+        }
+    }
+
+    private Faction validImport(GuildRoster.FactionEntry entry) {
+        if (entry.name() == null || entry.name().isBlank() || entry.leader() == null) {
+            return null;
+        }
+        if (factionNameToGuildMap.containsKey(entry.name().toLowerCase(Locale.ROOT))) {
+            return null;
+        }
+        Set<UUID> players = new LinkedHashSet<>(entry.players());
+        players.add(entry.leader());
+        for (UUID player : players) {
+            if (playerGuildMap.get(player) != entry.guild() || playerFactionMap.containsKey(player)) {
+                return null;
+            }
+        }
+        return new Faction(entry.name(), entry.leader(), players);
+    }
+}
@@ -0,0 +1,132 @@
+package net.havencore.pokehaven.core.guilds;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary format of guild mutation traces, written by {@link GuildTraceRecorder} and read by {@link GuildTraceReplay}.
+ * A gzip-compressed stream holding:
+ * <pre>
+ * header:  int MAGIC, byte VERSION, long start (epoch millis), roster (guild state when recording started)
+ * records: byte op, varlong nanos since the previous record, byte guild ordinal, op-specific arguments
+ * end:     byte END
+ * </pre>
+ * Players are written as two longs, names with {@link DataOutput#writeUTF}, counts as varints.
+ */
+public final class GuildTrace {
+    static final int MAGIC = 0x50484754; // "PHGT"
+    static final byte VERSION = 1;
+    static final byte END = -1;
+
+    /**
+     * One mutation call. The ordinal is the on-disk code, so only append new operations.
+     */
+    public enum Op {
+        JOIN,
+        LEAVE,
+        CREATE_FACTION,
+        REMOVE_FACTION,
+        JOIN_FACTION,
+        LEAVE_FACTION,
+        CHANGE_LEADER,
+        RENAME_FACTION,
+        IMPORT;
+
+        private static final Op[] VALUES = values();
+
+        static Op byCode(int code) {
+            if (code < 0 || code >= VALUES.length) {
+                throw new IllegalArgumentException("Unknown guild trace operation " + code);
+            }
+            return VALUES[code];
+        }
+    }
+
+    private GuildTrace() {
+    }
+
+    static void writeUuid(DataOutput out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varlong in guild trace");
+    }
+
+    static void writeUuids(DataOutput out, List<UUID> players) throws IOException {
+        writeVarLong(out, players.size());
+        for (UUID player : players) {
+            writeUuid(out, player);
+        }
+    }
+
+    static List<UUID> readUuids(DataInput in) throws IOException {
+        int count = (int) readVarLong(in);
+        List<UUID> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(readUuid(in));
+        }
+        return players;
+    }
+
+    static void writeRoster(DataOutput out, GuildRoster roster) throws IOException {
+        writeVarLong(out, roster.members().size());
+        for (Map.Entry<UUID, GuildName> member : roster.members().entrySet()) {
+            writeUuid(out, member.getKey());
+            out.writeByte(member.getValue().ordinal());
+        }
+        writeVarLong(out, roster.factions().size());
+        for (GuildRoster.FactionEntry faction : roster.factions()) {
+            out.writeByte(faction.guild().ordinal());
+            out.writeUTF(faction.name());
+            writeUuid(out, faction.leader());
+            writeUuids(out, faction.players());
+        }
+    }
+
+    static GuildRoster readRoster(DataInput in) throws IOException {
+        GuildName[] guilds = GuildName.values();
+        int memberCount = (int) readVarLong(in);
+        Map<UUID, GuildName> members = new LinkedHashMap<>(memberCount * 4 / 3 + 1);
+        for (int i = 0; i < memberCount; i++) {
+            UUID player = readUuid(in);
+            members.put(player, guilds[in.readUnsignedByte()]);
+        }
+        int factionCount = (int) readVarLong(in);
+        List<GuildRoster.FactionEntry> factions = new ArrayList<>(factionCount);
+        for (int i = 0; i < factionCount; i++) {
+            GuildName guild = guilds[in.readUnsignedByte()];
+            String name = in.readUTF();
+            UUID leader = readUuid(in);
+            factions.add(new GuildRoster.FactionEntry(guild, name, leader, readUuids(in)));
+        }
+        return new GuildRoster(members, factions);
+    }
+}
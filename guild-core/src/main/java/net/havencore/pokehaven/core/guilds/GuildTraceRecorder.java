@@ -0,0 +1,213 @@
+package net.havencore.pokehaven.core.guilds;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends successful {@link GuildStore} mutations to a {@link GuildTrace} file. Started and stopped through
+ * {@link GuildStore#startTrace(Path)} and {@link GuildStore#stopTrace()}, which call into it while holding the
+ * guild locks, so mutations that touch the same players or factions are recorded in the order they were applied.
+ * Mutations only append their arguments to an in-memory queue; a writer thread owned by the recording writes the
+ * header and then drains the queue to disk, so no file I/O or compression happens under the guild locks. The queue is
+ * unbounded, so a disk slower than the mutation rate costs memory rather than latency. An I/O error stops the
+ * recording rather than failing the mutation.
+ */
+public final class GuildTraceRecorder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GuildTraceRecorder.class);
+    private static final Entry END = new Entry(null, null, 0, null);
+
+    private final Path file;
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+    private final Thread writer;
+    private long records;
+    private boolean stopped;
+
+    private record Entry(GuildTrace.Op op, GuildName guild, long nanos, Arguments arguments) {
+    }
+
+    /**
+     * Creates a recording whose header will hold {@code initial}; nothing is written until {@link #start()}.
+     */
+    GuildTraceRecorder(Path file, GuildSnapshot initial) {
+        this.file = file;
+        this.writer = new Thread(() -> drain(initial), "guild trace writer");
+        writer.setDaemon(true);
+    }
+
+    void start() {
+        writer.start();
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Number of mutations recorded so far. Once {@link #closed()} completed normally, all of them are in the file.
+     */
+    public synchronized long records() {
+        return records;
+    }
+
+    /**
+     * Completes once the end marker is written and the file closed after {@link GuildStore#stopTrace()}, or
+     * exceptionally as soon as writing the file failed.
+     */
+    public CompletableFuture<Void> closed() {
+        return closed;
+    }
+
+    void join(GuildName guild, UUID player) {
+        write(GuildTrace.Op.JOIN, guild, out -> GuildTrace.writeUuid(out, player));
+    }
+
+    void leave(GuildName guild, UUID player) {
+        write(GuildTrace.Op.LEAVE, guild, out -> GuildTrace.writeUuid(out, player));
+    }
+
+    void createFaction(GuildName guild, String name, UUID leader, Collection<UUID> players) {
+        List<UUID> copy = List.copyOf(players);
+        write(GuildTrace.Op.CREATE_FACTION, guild, out -> {
+            out.writeUTF(name);
+            GuildTrace.writeUuid(out, leader);
+            GuildTrace.writeUuids(out, copy);
+        });
+    }
+
+    void removeFaction(GuildName guild, String name) {
+        write(GuildTrace.Op.REMOVE_FACTION, guild, out -> out.writeUTF(name));
+    }
+
+    void joinFaction(GuildName guild, String name, UUID player) {
+        write(GuildTrace.Op.JOIN_FACTION, guild, out -> {
+            out.writeUTF(name);
+            GuildTrace.writeUuid(out, player);
+        });
+    }
+
+    void leaveFaction(GuildName guild, String name, UUID player) {
+        write(GuildTrace.Op.LEAVE_FACTION, guild, out -> {
+            out.writeUTF(name);
+            GuildTrace.writeUuid(out, player);
+        });
+    }
+
+    void changeLeader(GuildName guild, String name, UUID leader) {
+        write(GuildTrace.Op.CHANGE_LEADER, guild, out -> {
+            out.writeUTF(name);
+            GuildTrace.writeUuid(out, leader);
+        });
+    }
+
+    void renameFaction(GuildName guild, String oldName, String newName) {
+        write(GuildTrace.Op.RENAME_FACTION, guild, out -> {
+            out.writeUTF(oldName);
+            out.writeUTF(newName);
+        });
+    }
+
+    /**
+     * Imports span several guilds, so the guild byte of the record is unused. The roster is copied here because the
+     * caller still owns its collections when the writer gets to it.
+     */
+    void importRoster(GuildRoster roster) {
+        GuildRoster copy = copy(roster);
+        write(GuildTrace.Op.IMPORT, GuildName.values()[0], out -> GuildTrace.writeRoster(out, copy));
+    }
+
+    /**
+     * Queues the end marker; the writer closes the file once everything before it is written. Later records are
+     * ignored. Does not wait for the file; see {@link #closed()}.
+     */
+    synchronized void close() {
+        if (!stopped) {
+            stopped = true;
+            queue.add(END);
+        }
+    }
+
+    private synchronized void write(GuildTrace.Op op, GuildName guild, Arguments arguments) {
+        if (stopped) {
+            return;
+        }
+        queue.add(new Entry(op, guild, System.nanoTime(), arguments));
+        records++;
+    }
+
+    private void drain(GuildSnapshot initial) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file))))) {
+            out.writeInt(GuildTrace.MAGIC);
+            out.writeByte(GuildTrace.VERSION);
+            out.writeLong(startMillis);
+            GuildTrace.writeRoster(out, roster(initial));
+            long lastNanos = startNanos;
+            Entry entry;
+            while ((entry = queue.take()) != END) {
+                out.writeByte(entry.op().ordinal());
+                GuildTrace.writeVarLong(out, Math.max(0, entry.nanos() - lastNanos));
+                out.writeByte(entry.guild().ordinal());
+                entry.arguments().write(out);
+                lastNanos = entry.nanos();
+            }
+            out.writeByte(GuildTrace.END);
+        } catch (IOException | InterruptedException e) {
+            LOGGER.error("Stopping guild trace {} after a write failure", file, e);
+            synchronized (this) {
+                stopped = true;
+                queue.clear();
+            }
+            closed.completeExceptionally(e);
+            return;
+        }
+        closed.complete(null);
+    }
+
+    private static GuildRoster copy(GuildRoster roster) {
+        List<GuildRoster.FactionEntry> factions = new ArrayList<>(roster.factions().size());
+        for (GuildRoster.FactionEntry faction : roster.factions()) {
+            factions.add(new GuildRoster.FactionEntry(faction.guild(), faction.name(), faction.leader(),
+                    List.copyOf(faction.players())));
+        }
+        return new GuildRoster(new LinkedHashMap<>(roster.members()), factions);
+    }
+
+    private static GuildRoster roster(GuildSnapshot snapshot) {
+        Map<UUID, GuildName> members = new LinkedHashMap<>();
+        List<GuildRoster.FactionEntry> factions = new ArrayList<>();
+        for (GuildSnapshot.GuildView guild : snapshot.guilds().values()) {
+            for (UUID player : guild.players()) {
+                members.put(player, guild.name());
+            }
+            for (GuildSnapshot.FactionView faction : guild.factions()) {
+                factions.add(new GuildRoster.FactionEntry(guild.name(), faction.name(), faction.leader(),
+                        faction.players()));
+            }
+        }
+        return new GuildRoster(members, factions);
+    }
+
+    @FunctionalInterface
+    private interface Arguments {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
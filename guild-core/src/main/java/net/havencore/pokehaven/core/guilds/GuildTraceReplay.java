@@ -0,0 +1,211 @@
+package net.havencore.pokehaven.core.guilds;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays a {@link GuildTrace} recorded by {@link GuildTraceRecorder} against a fresh {@link GuildStore}: the
+ * recorded starting roster is imported, then every call is applied on the replaying thread either back to back or at
+ * its recorded offset. Reports throughput, per-operation latency percentiles and the save size before and after, as
+ * measured by the caller's persistence format.
+ */
+public final class GuildTraceReplay {
+    private GuildTraceReplay() {
+    }
+
+    /**
+     * A decoded trace. Calls are fully decoded up front so file reading does not count towards replay latencies.
+     */
+    public record Trace(long startedAtMillis, GuildRoster initial, List<Call> calls) {
+        public long durationNanos() {
+            return calls.isEmpty() ? 0 : calls.get(calls.size() - 1).offsetNanos();
+        }
+    }
+
+    /**
+     * One recorded mutation, {@code offsetNanos} after recording started.
+     */
+    public record Call(GuildTrace.Op op, long offsetNanos, Consumer<GuildStore> action) {
+    }
+
+    /**
+     * Latencies of one operation type in nanoseconds; percentiles are exact.
+     */
+    public record Latency(int count, long p50, long p99, long max) {
+    }
+
+    public record Result(int operations, int rejected, long elapsedNanos, Map<GuildTrace.Op, Latency> latencies,
+                         int initialSaveBytes, int finalSaveBytes, long finalSaveNanos, List<String> violations) {
+        public double operationsPerSecond() {
+            return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+        }
+
+        public String describe() {
+            return String.format("%d operations (%d rejected) in %.1fms, %.0f ops/s, save %d -> %d bytes in %.1fms,"
+                            + " %d violations", operations, rejected, elapsedNanos / 1e6, operationsPerSecond(),
+                    initialSaveBytes, finalSaveBytes, finalSaveNanos / 1e6, violations.size());
+        }
+    }
+
+    public static Trace read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != GuildTrace.MAGIC) {
+                throw new IOException(file.getFileName() + " is not a guild trace");
+            }
+            byte version = in.readByte();
+            if (version != GuildTrace.VERSION) {
+                throw new IOException("Unsupported guild trace version " + version);
+            }
+            long startedAt = in.readLong();
+            GuildRoster initial = GuildTrace.readRoster(in);
+            GuildName[] guilds = GuildName.values();
+            List<Call> calls = new ArrayList<>();
+            long offset = 0;
+            byte code;
+            while ((code = in.readByte()) != GuildTrace.END) {
+                GuildTrace.Op op = GuildTrace.Op.byCode(code);
+                offset += GuildTrace.readVarLong(in);
+                GuildName guild = guilds[in.readUnsignedByte()];
+                calls.add(new Call(op, offset, decode(op, guild, in)));
+            }
+            return new Trace(startedAt, initial, List.copyOf(calls));
+        }
+    }
+
+    private static Consumer<GuildStore> decode(GuildTrace.Op op, GuildName guild, DataInputStream in)
+            throws IOException {
+        return switch (op) {
+            case JOIN -> {
+                UUID player = GuildTrace.readUuid(in);
+                yield data -> data.addPlayerToGuild(guild, player);
+            }
+            case LEAVE -> {
+                UUID player = GuildTrace.readUuid(in);
+                yield data -> data.removePlayerFromGuild(guild, player);
+            }
+            case CREATE_FACTION -> {
+                String name = in.readUTF();
+                UUID leader = GuildTrace.readUuid(in);
+                List<UUID> players = GuildTrace.readUuids(in);
+                yield data -> data.createFaction(guild, name, leader, players);
+            }
+            case REMOVE_FACTION -> {
+                String name = in.readUTF();
+                yield data -> data.removeFaction(guild, name);
+            }
+            case JOIN_FACTION -> {
+                String name = in.readUTF();
+                UUID player = GuildTrace.readUuid(in);
+                yield data -> data.addPlayerToFaction(guild, name, player);
+            }
+            case LEAVE_FACTION -> {
+                String name = in.readUTF();
+                UUID player = GuildTrace.readUuid(in);
+                yield data -> data.removePlayerFromFaction(guild, name, player);
+            }
+            case CHANGE_LEADER -> {
+                String name = in.readUTF();
+                UUID leader = GuildTrace.readUuid(in);
+                yield data -> data.changeFactionLeader(guild, name, leader);
+            }
+            case RENAME_FACTION -> {
+                String oldName = in.readUTF();
+                String newName = in.readUTF();
+                yield data -> data.renameFaction(guild, oldName, newName);
+            }
+            case IMPORT -> {
+                GuildRoster roster = GuildTrace.readRoster(in);
+                yield data -> data.importRoster(roster);
+            }
+        };
+    }
+
+    /**
+     * Replays {@code trace} on a new {@link GuildStore}, which is returned through {@code target} if non-null so
+     * callers can inspect the end state. In real time the replay sleeps until each call's recorded offset; otherwise
+     * calls run back to back. An interrupt stops the replay early and reports the calls applied so far. The save size
+     * is measured with {@code saveSize} before the first call and after the last; its time is reported for the latter.
+     */
+    public static Result replay(Trace trace, boolean realTime, ToIntFunction<GuildStore> saveSize,
+                                Consumer<GuildStore> target) {
+        GuildStore data = new GuildStore();
+        data.importRoster(trace.initial());
+        int initialBytes = saveSize.applyAsInt(data);
+
+        Map<GuildTrace.Op, long[]> samples = new EnumMap<>(GuildTrace.Op.class);
+        Map<GuildTrace.Op, Integer> counts = new EnumMap<>(GuildTrace.Op.class);
+        int operations = 0;
+        int rejected = 0;
+        long begin = System.nanoTime();
+        for (Call call : trace.calls()) {
+            if (realTime && !waitUntil(begin + call.offsetNanos())) {
+                break;
+            }
+            long start = System.nanoTime();
+            try {
+                call.action().accept(data);
+            } catch (RuntimeException e) {
+                rejected++;
+            }
+            long nanos = System.nanoTime() - start;
+
+            int count = counts.merge(call.op(), 1, Integer::sum);
+            long[] recorded = samples.get(call.op());
+            if (recorded == null || recorded.length < count) {
+                recorded = recorded == null ? new long[64] : Arrays.copyOf(recorded, recorded.length * 2);
+                samples.put(call.op(), recorded);
+            }
+            recorded[count - 1] = nanos;
+            operations++;
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        Map<GuildTrace.Op, Latency> latencies = new EnumMap<>(GuildTrace.Op.class);
+        counts.forEach((op, count) -> latencies.put(op, latency(samples.get(op), count)));
+
+        long saveStart = System.nanoTime();
+        int finalBytes = saveSize.applyAsInt(data);
+        long saveNanos = System.nanoTime() - saveStart;
+
+        if (target != null) {
+            target.accept(data);
+        }
+        return new Result(operations, rejected, elapsed, latencies, initialBytes, finalBytes, saveNanos,
+                data.findInvariantViolations());
+    }
+
+    private static boolean waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Latency latency(long[] samples, int count) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Latency(count, percentile(sorted, 0.5), percentile(sorted, 0.99), sorted[count - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(sorted.length * quantile) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
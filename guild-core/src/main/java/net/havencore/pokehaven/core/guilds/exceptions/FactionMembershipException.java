@@ -1,4 +1,4 @@
-package net.havencore.pokehaven.guilds.exceptions;
+package net.havencore.pokehaven.core.guilds.exceptions;
 
 public class FactionMembershipException extends RuntimeException {
     public FactionMembershipException(String message) {
@@ -1,4 +1,4 @@
-package net.havencore.pokehaven.guilds.exceptions;
+package net.havencore.pokehaven.core.guilds.exceptions;
 
 public class FactionNamingException extends RuntimeException {
     public FactionNamingException(String message) {
@@ -1,4 +1,4 @@
-package net.havencore.pokehaven.guilds.exceptions;
+package net.havencore.pokehaven.core.guilds.exceptions;
 
 public class FactionNotFoundException extends RuntimeException {
     public FactionNotFoundException(String message) {
@@ -0,0 +1,33 @@
+package net.havencore.pokehaven.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic event count. Increments are dropped while {@link Metrics} is disabled.
+ */
+public final class Counter {
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        if (Metrics.enabled()) {
+            count.increment();
+        }
+    }
+
+    public void add(long amount) {
+        if (Metrics.enabled()) {
+            count.add(amount);
+        }
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    void reset() {
+        count.reset();
+    }
+}
@@ -0,0 +1,32 @@
+package net.havencore.pokehaven.core.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Point-in-time value, either set explicitly or read from a supplier whenever it is reported.
+ */
+public final class Gauge {
+    private final LongSupplier supplier;
+    private volatile long value;
+
+    Gauge(LongSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Records the current value. Ignored for supplier-backed gauges and while {@link Metrics} is disabled.
+     */
+    public void set(long value) {
+        if (Metrics.enabled()) {
+            this.value = value;
+        }
+    }
+
+    public long get() {
+        return supplier != null ? supplier.getAsLong() : value;
+    }
+
+    void reset() {
+        value = 0;
+    }
+}
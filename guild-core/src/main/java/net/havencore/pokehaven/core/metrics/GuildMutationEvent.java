@@ -0,0 +1,55 @@
+package net.havencore.pokehaven.core.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one change to guild membership, factions or leadership, including time spent waiting for the guild
+ * data lock. Only mutations that changed something are committed; rejected calls and no-ops are dropped unrecorded.
+ */
+@Name("pokehaven.GuildMutation")
+@Label("Guild Mutation")
+@Category({"PokeHaven", "Guilds"})
+@Description("A change to guild or faction membership, leadership or naming")
+@StackTrace(false)
+public final class GuildMutationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Guild")
+    String guild;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    /**
+     * Creates the event with its clock started.
+     */
+    public static GuildMutationEvent start() {
+        GuildMutationEvent event = new GuildMutationEvent();
+        event.begin();
+        return event;
+    }
+
+    public void lockWaited(long nanos) {
+        lockWait += nanos;
+    }
+
+    /**
+     * Ends the event and commits it if the recording wants it. Call only once the mutation has been applied.
+     */
+    public void finish(String operation, String guild) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.guild = guild;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package net.havencore.pokehaven.core.metrics;
+
+/**
+ * Shallow heap size estimates for a 64-bit JVM with compressed references (heaps under 32 GB, the default), with
+ * 12-byte object headers and 8-byte alignment. Used by {@code /pokehaven memory} to size data structures from their
+ * element counts without walking them; figures are estimates, typically within a few percent for large collections.
+ */
+public final class HeapSize {
+    public static final int HEADER = 12;
+    public static final int ARRAY_HEADER = 16;
+    public static final int REFERENCE = 4;
+
+    /**
+     * A {@link java.util.UUID}: two longs.
+     */
+    public static final long UUID = object(16);
+
+    /**
+     * One node of a {@link java.util.HashMap} or {@link java.util.concurrent.ConcurrentHashMap}: hash, key, value and
+     * next.
+     */
+    public static final long HASH_NODE = object(4 + 3 * REFERENCE);
+
+    /**
+     * One entry of a {@link java.util.TreeMap}: key, value, left, right, parent and colour.
+     */
+    public static final long TREE_NODE = object(5 * REFERENCE + 1);
+
+    private static final long HASH_MAP = object(48);
+    private static final long TREE_MAP = object(36);
+
+    private HeapSize() {
+    }
+
+    /**
+     * Estimated size of one data structure holding {@code entries} elements.
+     */
+    public record Estimate(String name, long entries, long bytes) {
+    }
+
+    public static String format(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KiB", bytes / 1024.0);
+        }
+        return String.format("%.1f MiB", bytes / (1024.0 * 1024.0));
+    }
+
+    public static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * An object with {@code fieldBytes} of fields.
+     */
+    public static long object(int fieldBytes) {
+        return align(HEADER + fieldBytes);
+    }
+
+    public static long referenceArray(long length) {
+        return align(ARRAY_HEADER + (long) REFERENCE * length);
+    }
+
+    /**
+     * A string and its backing array, compact (one byte per char) unless it holds characters outside Latin-1.
+     */
+    public static long string(String value) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return object(4 + 4 + 1 + 1) + align(ARRAY_HEADER + (long) value.length() * bytesPerChar);
+    }
+
+    /**
+     * A {@link java.util.HashMap}, {@link java.util.HashSet} or {@link java.util.concurrent.ConcurrentHashMap} with
+     * {@code entries} mappings at the default load factor, excluding the keys and values themselves.
+     */
+    public static long hashMap(long entries) {
+        long capacity = Math.max(16, Long.highestOneBit(Math.max(1, entries * 4 / 3)) << 1);
+        return HASH_MAP + referenceArray(capacity) + entries * HASH_NODE;
+    }
+
+    /**
+     * A {@link java.util.TreeMap} with {@code entries} mappings, excluding the keys and values themselves.
+     */
+    public static long treeMap(long entries) {
+        return TREE_MAP + entries * TREE_NODE;
+    }
+
+    /**
+     * A {@link java.util.concurrent.CopyOnWriteArrayList} of {@code length} elements, excluding the elements, including
+     * its lock object.
+     */
+    public static long copyOnWriteList(long length) {
+        return object(2 * REFERENCE) + object(0) + referenceArray(length);
+    }
+
+    /**
+     * A map from {@link java.util.Map#copyOf}, whose table holds keys and values at twice the entry count.
+     */
+    public static long immutableMap(long entries) {
+        return object(REFERENCE + 4) + referenceArray(entries * 4);
+    }
+}
@@ -0,0 +1,78 @@
+package net.havencore.pokehaven.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution in nanoseconds with power-of-two buckets: bucket {@code b} holds durations in
+ * {@code [2^(b-1), 2^b)}. Recording is a handful of uncontended atomic adds; percentiles are reported as the upper bound
+ * of the bucket they fall in, so they are accurate to within a factor of two.
+ */
+public final class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+    }
+
+    /**
+     * Records the time elapsed since {@code start}, a value returned by {@link Metrics#start()}. Does nothing if metrics
+     * were disabled when the measurement started.
+     */
+    public void recordSince(long start) {
+        if (start != 0) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    public void record(long nanos) {
+        if (!Metrics.enabled()) {
+            return;
+        }
+        long clamped = Math.max(0, nanos);
+        buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(clamped)));
+        total.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    public Summary summary() {
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] = buckets.get(b);
+            n += counts[b];
+        }
+        return new Summary(n, n == 0 ? 0 : total.sum() / n, percentile(counts, n, 0.5), percentile(counts, n, 0.99),
+                max.get());
+    }
+
+    private static long percentile(long[] counts, long n, double quantile) {
+        long rank = (long) Math.ceil(n * quantile);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank && seen > 0) {
+                return b == 0 ? 0 : 1L << Math.min(62, b);
+            }
+        }
+        return 0;
+    }
+
+    void reset() {
+        for (int b = 0; b < BUCKETS; b++) {
+            buckets.set(b, 0);
+        }
+        total.reset();
+        max.reset();
+    }
+
+    /**
+     * Snapshot of the distribution; all times in nanoseconds.
+     */
+    public record Summary(long count, long mean, long p50, long p99, long max) {
+    }
+}
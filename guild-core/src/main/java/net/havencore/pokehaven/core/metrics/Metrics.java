@@ -0,0 +1,96 @@
+package net.havencore.pokehaven.core.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of named counters, gauges and latency histograms. Metrics are created once, usually into static
+ * fields of the class they instrument, and are cheap to update; while disabled (see {@code metricsEnabled} in the
+ * config) every update returns after a single volatile read and {@link #start()} skips the clock.
+ */
+public final class Metrics {
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Gauge> GAUGES = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+
+    private static volatile boolean enabled;
+
+    private Metrics() {
+    }
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * Start time for {@link LatencyHistogram#recordSince}, or {@code 0} while metrics are disabled.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, unused -> new Counter());
+    }
+
+    public static Gauge gauge(String name) {
+        return GAUGES.computeIfAbsent(name, unused -> new Gauge(null));
+    }
+
+    /**
+     * Registers a gauge that reads {@code supplier} when reported, replacing any earlier gauge of the same name.
+     */
+    public static Gauge gauge(String name, LongSupplier supplier) {
+        Gauge gauge = new Gauge(supplier);
+        GAUGES.put(name, gauge);
+        return gauge;
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, unused -> new LatencyHistogram());
+    }
+
+    public static Map<String, Counter> counters() {
+        return COUNTERS;
+    }
+
+    public static Map<String, Gauge> gauges() {
+        return GAUGES;
+    }
+
+    public static Map<String, LatencyHistogram> histograms() {
+        return HISTOGRAMS;
+    }
+
+    /**
+     * Zeroes every counter, explicitly set gauge and histogram.
+     */
+    public static void reset() {
+        COUNTERS.values().forEach(Counter::reset);
+        GAUGES.values().forEach(Gauge::reset);
+        HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Formats a duration for display, picking ns, µs or ms.
+     */
+    public static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format("%.1fus", nanos / 1_000.0);
+        }
+        return String.format("%.1fms", nanos / 1_000_000.0);
+    }
+
+    public static String format(LatencyHistogram.Summary summary) {
+        return "n=" + summary.count() + " mean=" + formatNanos(summary.mean()) + " p50=" + formatNanos(summary.p50())
+                + " p99=" + formatNanos(summary.p99()) + " max=" + formatNanos(summary.max());
+    }
+}
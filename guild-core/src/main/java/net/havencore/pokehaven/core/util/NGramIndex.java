@@ -0,0 +1,159 @@
+package net.havencore.pokehaven.core.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Case-insensitive trigram index for "did you mean" lookups. Names are padded so that short names and prefixes still
+ * produce trigrams. A query counts how many distinct trigrams each name shares with it by walking the posting sets of
+ * its own trigrams, so its cost grows with the number of names sharing a trigram with the query, and so with the total
+ * number of names. The count filter then drops every name that cannot be within the requested distance: one edit
+ * changes at most three trigrams, so a match within {@code k} edits shares at least {@code max(|A|, |B|) - 3k} of the
+ * distinct trigram sets {@code A} and {@code B}. Only the survivors are ranked by edit distance, and each comparison
+ * is abandoned as soon as it exceeds the requested bound. Thread-safe.
+ */
+public final class NGramIndex {
+    private static final int N = 3;
+    private static final char PAD = '\0';
+
+    private final Map<String, Set<String>> postings = new HashMap<>();
+    private final Map<String, Name> names = new HashMap<>();
+    private int postingCount;
+
+    public synchronized void add(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Set<String> grams = grams(key);
+        if (names.put(key, new Name(name, grams.size())) == null) {
+            for (String gram : grams) {
+                if (postings.computeIfAbsent(gram, unused -> new HashSet<>()).add(key)) {
+                    postingCount++;
+                }
+            }
+        }
+    }
+
+    public synchronized void remove(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        if (names.remove(key) == null) {
+            return;
+        }
+        for (String gram : grams(key)) {
+            Set<String> keys = postings.get(gram);
+            if (keys != null && keys.remove(key)) {
+                postingCount--;
+                if (keys.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+
+    /**
+     * Number of distinct trigrams, for memory accounting.
+     */
+    public synchronized int gramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Total entries across all trigram posting sets, kept up to date by {@link #add} and {@link #remove}.
+     */
+    public synchronized int postingCount() {
+        return postingCount;
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        names.clear();
+        postingCount = 0;
+    }
+
+    /**
+     * Returns up to {@code limit} names within {@code maxDistance} edits of {@code query}, ignoring case, closest
+     * first.
+     */
+    public synchronized List<String> closest(String query, int maxDistance, int limit) {
+        String key = query.toLowerCase(Locale.ROOT);
+        Set<String> queryGrams = grams(key);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            Set<String> keys = postings.get(gram);
+            if (keys != null) {
+                for (String candidate : keys) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            String candidate = entry.getKey();
+            Name name = names.get(candidate);
+            if (entry.getValue() < Math.max(queryGrams.size(), name.grams()) - N * maxDistance
+                    || Math.abs(candidate.length() - key.length()) > maxDistance) {
+                continue;
+            }
+            int distance = distance(key, candidate, maxDistance);
+            if (distance <= maxDistance) {
+                matches.add(new Match(name.display(), distance));
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::name, String.CASE_INSENSITIVE_ORDER));
+        return matches.stream().limit(limit).map(Match::name).toList();
+    }
+
+    private static Set<String> grams(String key) {
+        String padded = String.valueOf(PAD).repeat(N - 1) + key + PAD;
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + N));
+        }
+        return grams;
+    }
+
+    /**
+     * Levenshtein distance, or {@code bound + 1} as soon as it is known to exceed {@code bound}.
+     */
+    static int distance(String a, String b, int bound) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * A name as it was added, and the number of distinct trigrams of its lower-case form.
+     */
+    private record Name(String display, int grams) {
+    }
+
+    private record Match(String name, int distance) {
+    }
+}
@@ -0,0 +1,122 @@
+package net.havencore.pokehaven.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Case-insensitive prefix trie over display names. Names are keyed by their lower-case form and returned with their
+ * original casing, in alphabetical order. Lookups only visit the prefix path and as many nodes below it as needed to
+ * fill the requested limit, so they do not depend on the total number of names. Thread-safe.
+ */
+public final class NameTrie {
+    private final Node root = new Node();
+    private int size;
+    private int nodes;
+
+    public synchronized boolean add(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node();
+                node.children.put(key.charAt(i), child);
+                nodes++;
+            }
+            node = child;
+        }
+        boolean added = node.name == null;
+        node.name = name;
+        if (added) {
+            size++;
+        }
+        return added;
+    }
+
+    public synchronized boolean remove(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].children.get(key.charAt(i));
+            if (path[i + 1] == null) {
+                return false;
+            }
+        }
+        Node node = path[key.length()];
+        if (node.name == null) {
+            return false;
+        }
+        node.name = null;
+        size--;
+        // Prune branches that no longer lead to any name.
+        for (int i = key.length(); i > 0 && path[i].name == null && path[i].children.isEmpty(); i--) {
+            path[i - 1].children.remove(key.charAt(i - 1));
+            nodes--;
+        }
+        return true;
+    }
+
+    public synchronized boolean contains(String name) {
+        Node node = find(name.toLowerCase(Locale.ROOT));
+        return node != null && node.name != null;
+    }
+
+    /**
+     * Returns up to {@code limit} names starting with {@code prefix}, ignoring case.
+     */
+    public synchronized List<String> withPrefix(String prefix, int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        Node node = find(prefix.toLowerCase(Locale.ROOT));
+        if (node != null && limit > 0) {
+            collect(node, result, limit);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Number of nodes below the root, kept up to date by {@link #add} and {@link #remove} for memory accounting.
+     */
+    public synchronized int nodeCount() {
+        return nodes;
+    }
+
+    public synchronized void clear() {
+        root.children.clear();
+        root.name = null;
+        size = 0;
+        nodes = 0;
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        return node;
+    }
+
+    private static void collect(Node node, List<String> result, int limit) {
+        if (node.name != null) {
+            result.add(node.name);
+        }
+        for (Node child : node.children.values()) {
+            if (result.size() >= limit) {
+                return;
+            }
+            collect(child, result, limit);
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new TreeMap<>();
+        private String name;
+    }
+}
@@ -0,0 +1,113 @@
+package net.havencore.pokehaven.core.guilds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GuildPresenceTest {
+    private static final UUID LEADER = new UUID(50L, 1L);
+    private static final UUID MEMBER = new UUID(50L, 2L);
+    private static final UUID OFFLINE = new UUID(50L, 3L);
+
+    @Test
+    void loginAndLogoutTrackGuildAndFaction() {
+        GuildStore store = new GuildStore();
+        store.addPlayerToGuild(GuildName.PLASMA, LEADER);
+        store.addPlayerToGuild(GuildName.PLASMA, MEMBER);
+        store.addPlayerToGuild(GuildName.PLASMA, OFFLINE);
+        store.createFaction(GuildName.PLASMA, "Sages", LEADER, List.of(MEMBER, OFFLINE));
+        Faction sages = store.getFactionForPlayer(LEADER).orElseThrow();
+
+        GuildPresence presence = store.presence();
+        presence.online(LEADER);
+        presence.online(MEMBER);
+        presence.online(MEMBER);
+
+        assertEquals(2, presence.onlineCount());
+        assertEquals(Set.of(LEADER, MEMBER), presence.online(GuildName.PLASMA));
+        assertEquals(Set.of(LEADER, MEMBER), presence.online(sages));
+        assertFalse(presence.isOnline(OFFLINE));
+
+        presence.offline(MEMBER);
+        assertEquals(1, presence.onlineCount(GuildName.PLASMA));
+        assertEquals(Set.of(LEADER), presence.online(sages));
+    }
+
+    @Test
+    void membershipChangesMoveOnlinePlayers() {
+        GuildStore store = new GuildStore();
+        GuildPresence presence = store.presence();
+        presence.online(LEADER);
+        presence.online(MEMBER);
+        assertEquals(0, presence.onlineCount(GuildName.PLASMA));
+
+        store.addPlayerToGuild(GuildName.PLASMA, LEADER);
+        store.addPlayerToGuild(GuildName.PLASMA, MEMBER);
+        store.createFaction(GuildName.PLASMA, "Sages", LEADER);
+        Faction sages = store.getFactionForPlayer(LEADER).orElseThrow();
+        Set<UUID> view = presence.online(sages);
+        assertEquals(Set.of(LEADER), view);
+
+        store.addPlayerToFaction(GuildName.PLASMA, "Sages", MEMBER);
+        assertEquals(Set.of(LEADER, MEMBER), view);
+        store.renameFaction(GuildName.PLASMA, "Sages", "Shadows");
+        assertEquals(2, presence.onlineCount(sages));
+        store.removePlayerFromGuild(GuildName.PLASMA, MEMBER);
+        assertEquals(Set.of(LEADER), view);
+        assertEquals(Set.of(LEADER), presence.online(GuildName.PLASMA));
+
+        store.removeFaction(GuildName.PLASMA, "Shadows");
+        assertEquals(0, presence.onlineCount(sages));
+        assertEquals(Set.of(LEADER), presence.online(GuildName.PLASMA));
+        presence.offline(LEADER);
+        assertTrue(presence.online(GuildName.PLASMA).isEmpty());
+        assertEquals(1, presence.onlineCount());
+        assertTrue(presence.isOnline(MEMBER));
+    }
+
+    @Test
+    void importPlacesOnlinePlayers() {
+        GuildStore store = new GuildStore();
+        store.presence().online(LEADER);
+        store.importRoster(new GuildRoster(Map.of(LEADER, GuildName.YELLOW, OFFLINE, GuildName.YELLOW),
+                List.of(new GuildRoster.FactionEntry(GuildName.YELLOW, "Sparks", LEADER, List.of(OFFLINE)))));
+
+        Faction sparks = store.getFactionForPlayer(LEADER).orElseThrow();
+        assertEquals(Set.of(LEADER), store.presence().online(GuildName.YELLOW));
+        assertEquals(Set.of(LEADER), store.presence().online(sparks));
+    }
+
+    @Test
+    void membershipListenerSeesOnlyOnlinePlayersTouched() {
+        GuildStore store = new GuildStore();
+        store.addPlayerToGuild(GuildName.PLASMA, LEADER);
+        store.addPlayerToGuild(GuildName.PLASMA, MEMBER);
+        store.addPlayerToGuild(GuildName.PLASMA, OFFLINE);
+        store.createFaction(GuildName.PLASMA, "Sages", LEADER, List.of(MEMBER, OFFLINE));
+        store.presence().online(LEADER);
+        store.presence().online(MEMBER);
+        List<UUID> touched = new ArrayList<>();
+        store.setMembershipListener(touched::add);
+
+        store.renameFaction(GuildName.PLASMA, "Sages", "Shadows");
+        assertEquals(Set.of(LEADER, MEMBER), Set.copyOf(touched));
+
+        touched.clear();
+        store.removePlayerFromFaction(GuildName.PLASMA, "Shadows", OFFLINE);
+        assertTrue(touched.isEmpty());
+        store.changeFactionLeader(GuildName.PLASMA, "Shadows", MEMBER);
+        assertEquals(List.of(LEADER, MEMBER), touched);
+
+        touched.clear();
+        store.removeFaction(GuildName.PLASMA, "Shadows");
+        assertEquals(Set.of(LEADER, MEMBER), Set.copyOf(touched));
+    }
+}
@@ -0,0 +1,186 @@
+package net.havencore.pokehaven.core.guilds;
+
+import net.havencore.pokehaven.core.guilds.exceptions.FactionLeadershipException;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionMembershipException;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionNamingException;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionNotFoundException;
+import net.havencore.pokehaven.core.guilds.exceptions.GuildMembershipException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GuildStoreTest {
+    private static UUID player(long id) {
+        return new UUID(49L, id);
+    }
+
+    @Test
+    void joinAndLeaveKeepIndexInStep() {
+        GuildStore store = new GuildStore();
+        List<UUID> players = IntStream.range(0, 200).mapToObj(GuildStoreTest::player).toList();
+        players.forEach(p -> store.addPlayerToGuild(GuildName.ROCKET, p));
+
+        assertEquals(200, store.getGuilds().get(GuildName.ROCKET).getPlayers().size());
+        assertThrows(GuildMembershipException.class, () -> store.addPlayerToGuild(GuildName.MAGMA, players.get(0)));
+
+        players.stream().limit(100).forEach(p -> store.removePlayerFromGuild(GuildName.ROCKET, p));
+        assertEquals(100, store.getGuilds().get(GuildName.ROCKET).getPlayers().size());
+        assertNull(store.getGuildOfPlayer(players.get(0)));
+        assertSame(GuildName.ROCKET, store.getGuildOfPlayer(players.get(150)));
+        assertTrue(store.findInvariantViolations().isEmpty());
+    }
+
+    @Test
+    void leavingWithoutAGuildDoesNothing() {
+        GuildStore store = new GuildStore();
+        UUID guildless = player(1);
+        store.addPlayerToGuild(GuildName.ROCKET, player(2));
+
+        store.removePlayerFromGuild(null, guildless);
+        store.removePlayerFromGuild(GuildName.ROCKET, guildless);
+        assertNull(store.getGuildOfPlayer(guildless));
+        assertEquals(1, store.getGuilds().get(GuildName.ROCKET).getPlayers().size());
+        assertTrue(store.findInvariantViolations().isEmpty());
+    }
+
+    @Test
+    void factionLifecycle() {
+        GuildStore store = new GuildStore();
+        UUID leader = player(1);
+        UUID member = player(2);
+        store.addPlayerToGuild(GuildName.AQUA, leader);
+        store.addPlayerToGuild(GuildName.AQUA, member);
+
+        store.createFaction(GuildName.AQUA, "Tide", leader);
+        store.addPlayerToFaction(GuildName.AQUA, "tide", member);
+        assertEquals("tide", store.getFactionOfPlayer(member));
+
+        store.renameFaction(GuildName.AQUA, "Tide", "Current");
+        assertEquals("current", store.getFactionOfPlayer(member));
+        assertEquals(List.of("Current"), store.findFactionNames("cur", 10));
+        assertEquals(List.of("Current"), store.findSimilarFactionNames("Curent", 2, 10));
+
+        store.changeFactionLeader(GuildName.AQUA, "Current", member);
+        store.removePlayerFromFaction(GuildName.AQUA, "Current", leader);
+        assertNull(store.getFactionOfPlayer(leader));
+
+        store.removeFaction(GuildName.AQUA, "Current");
+        assertNull(store.getFactionOfPlayer(member));
+        assertTrue(store.findFactionNames("", 10).isEmpty());
+        assertTrue(store.findInvariantViolations().isEmpty());
+    }
+
+    @Test
+    void factionRulesAreEnforced() {
+        GuildStore store = new GuildStore();
+        UUID first = player(1);
+        UUID second = player(2);
+        UUID outsider = player(3);
+        store.addPlayerToGuild(GuildName.PLASMA, first);
+        store.addPlayerToGuild(GuildName.PLASMA, second);
+        store.addPlayerToGuild(GuildName.FLARE, outsider);
+        store.createFaction(GuildName.PLASMA, "Ion", first);
+        store.createFaction(GuildName.PLASMA, "Arc", second);
+
+        assertThrows(FactionNamingException.class, () -> store.createFaction(GuildName.FLARE, "ION", outsider));
+        assertThrows(FactionMembershipException.class,
+                () -> store.addPlayerToFaction(GuildName.PLASMA, "Ion", outsider));
+        assertThrows(FactionMembershipException.class,
+                () -> store.addPlayerToFaction(GuildName.PLASMA, "Ion", second));
+        assertThrows(FactionLeadershipException.class, () -> store.removePlayerFromGuild(GuildName.PLASMA, first));
+        assertTrue(store.findInvariantViolations().isEmpty());
+    }
+
+    @Test
+    void importSkipsConflicts() {
+        GuildStore store = new GuildStore();
+        UUID existing = player(0);
+        store.addPlayerToGuild(GuildName.STAR, existing);
+        store.createFaction(GuildName.STAR, "Nova", existing);
+        UUID present = player(5000);
+        store.addPlayerToGuild(GuildName.YELLOW, present);
+
+        Map<UUID, GuildName> members = new LinkedHashMap<>();
+        List<UUID> imported = IntStream.range(1, 1001).mapToObj(GuildStoreTest::player).toList();
+        imported.forEach(p -> members.put(p, GuildName.YELLOW));
+        members.put(existing, GuildName.YELLOW);
+        members.put(present, GuildName.YELLOW);
+        GuildRoster.ImportResult result = store.importRoster(new GuildRoster(members, List.of(
+                new GuildRoster.FactionEntry(GuildName.YELLOW, "Volt", imported.get(0), imported.subList(0, 10)),
+                new GuildRoster.FactionEntry(GuildName.YELLOW, "nova", imported.get(20), List.of()))));
+
+        assertEquals(new GuildRoster.ImportResult(1000, 1, 1, 1, 1), result);
+        assertSame(GuildName.STAR, store.getGuildOfPlayer(existing));
+        assertEquals("volt", store.getFactionOfPlayer(imported.get(5)));
+        assertTrue(store.findInvariantViolations().isEmpty());
+    }
+
+    @Test
+    void snapshotIsReusedUntilChanged() {
+        GuildStore store = new GuildStore();
+        store.addPlayerToGuild(GuildName.GALACTIC, player(1));
+        GuildSnapshot first = store.snapshot();
+        assertSame(first, store.snapshot());
+
+        store.addPlayerToGuild(GuildName.GALACTIC, player(2));
+        GuildSnapshot second = store.snapshot();
+        assertNotSame(first, second);
+        assertEquals(2, second.guild(GuildName.GALACTIC).players().size());
+        assertEquals(1, first.guild(GuildName.GALACTIC).players().size());
+    }
+
+    @Test
+    void concurrentMutationsKeepInvariants() throws InterruptedException {
+        GuildStore store = new GuildStore();
+        GuildName[] guilds = {GuildName.ROCKET, GuildName.MAGMA};
+        List<Throwable> failures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 5_000; i++) {
+                    UUID p = player(random.nextInt(64));
+                    GuildName guild = guilds[random.nextInt(guilds.length)];
+                    String faction = "f" + random.nextInt(8);
+                    try {
+                        switch (random.nextInt(6)) {
+                            case 0 -> store.addPlayerToGuild(guild, p);
+                            case 1 -> store.removePlayerFromGuild(guild, p);
+                            case 2 -> store.createFaction(guild, faction, p);
+                            case 3 -> store.addPlayerToFaction(guild, faction, p);
+                            case 4 -> store.removePlayerFromFaction(guild, faction, p);
+                            default -> store.removeFaction(guild, faction);
+                        }
+                    } catch (GuildMembershipException | FactionMembershipException | FactionLeadershipException
+                             | FactionNamingException | FactionNotFoundException expected) {
+                        // Rejected by the guild rules; only the end state matters here.
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Possible deadlock");
+        assertEquals(List.of(), failures);
+        assertEquals(List.of(), store.findInvariantViolations());
+    }
+}
@@ -0,0 +1,84 @@
+package net.havencore.pokehaven.core.guilds;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GuildTraceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayReproducesRecordedMutations() throws IOException {
+        GuildStore store = new GuildStore();
+        UUID founder = new UUID(49L, 0L);
+        store.importRoster(new GuildRoster(Map.of(founder, GuildName.SKULL),
+                List.of(new GuildRoster.FactionEntry(GuildName.SKULL, "Bones", founder, List.of(founder)))));
+
+        Path file = directory.resolve("test.guildtrace");
+        store.startTrace(file);
+        for (int i = 1; i <= 50; i++) {
+            store.addPlayerToGuild(GuildName.SKULL, new UUID(49L, i));
+        }
+        store.createFaction(GuildName.SKULL, "Grunts", new UUID(49L, 1L), List.of(new UUID(49L, 2L)));
+        store.addPlayerToFaction(GuildName.SKULL, "Bones", new UUID(49L, 3L));
+        store.changeFactionLeader(GuildName.SKULL, "Bones", new UUID(49L, 3L));
+        store.renameFaction(GuildName.SKULL, "Grunts", "Team");
+        store.removePlayerFromGuild(GuildName.SKULL, new UUID(49L, 50L));
+        GuildTraceRecorder recorder = store.stopTrace();
+        recorder.closed().join();
+        assertEquals(55, recorder.records());
+
+        GuildTraceReplay.Trace trace = GuildTraceReplay.read(file);
+        assertEquals(55, trace.calls().size());
+        AtomicReference<GuildStore> replayed = new AtomicReference<>();
+        GuildTraceReplay.Result result = GuildTraceReplay.replay(trace, false, unused -> 0, replayed::set);
+
+        assertEquals(0, result.rejected());
+        assertTrue(result.violations().isEmpty());
+        GuildSnapshot.GuildView expected = store.snapshot().guild(GuildName.SKULL);
+        GuildSnapshot.GuildView actual = replayed.get().snapshot().guild(GuildName.SKULL);
+        assertEquals(new HashSet<>(expected.players()), new HashSet<>(actual.players()));
+        assertEquals(expected.factions(), actual.factions());
+    }
+
+    @Test
+    void importIsRecordedAsApplied() throws IOException {
+        GuildStore store = new GuildStore();
+        UUID leader = new UUID(49L, 0L);
+        Map<UUID, GuildName> members = new LinkedHashMap<>();
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            members.put(new UUID(49L, i), GuildName.AQUA);
+            players.add(new UUID(49L, i));
+        }
+
+        Path file = directory.resolve("import.guildtrace");
+        store.startTrace(file);
+        store.importRoster(new GuildRoster(members,
+                List.of(new GuildRoster.FactionEntry(GuildName.AQUA, "Tide", leader, players))));
+        // The caller reuses its collections before the writer has necessarily reached the record.
+        members.clear();
+        players.clear();
+        GuildTraceRecorder recorder = store.stopTrace();
+        recorder.closed().join();
+
+        AtomicReference<GuildStore> replayed = new AtomicReference<>();
+        GuildTraceReplay.replay(GuildTraceReplay.read(file), false, unused -> 0, replayed::set);
+        GuildSnapshot.GuildView actual = replayed.get().snapshot().guild(GuildName.AQUA);
+        assertEquals(100, actual.players().size());
+        assertEquals(store.snapshot().guild(GuildName.AQUA).factions(), actual.factions());
+    }
+}
@@ -0,0 +1,51 @@
+package net.havencore.pokehaven.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NGramIndexTest {
+    @Test
+    void closestRanksByEditDistance() {
+        NGramIndex index = new NGramIndex();
+        index.add("Inferno");
+        index.add("Infernal");
+        index.add("Tide");
+
+        assertEquals(List.of("Inferno", "Infernal"), index.closest("infern", 2, 10));
+        assertEquals(List.of("Tide"), index.closest("Tdie", 2, 10));
+        assertTrue(index.closest("Glacier", 2, 10).isEmpty());
+    }
+
+    @Test
+    void countFilterKeepsRepetitiveAndLongNames() {
+        NGramIndex index = new NGramIndex();
+        index.add("Aaaaaaaaaa");
+        index.add("Stormbreakers");
+        index.add("Stormbringers");
+        index.add("Stone");
+
+        assertEquals(List.of("Aaaaaaaaaa"), index.closest("aaaaaaaaa", 1, 10));
+        assertEquals(List.of("Stormbreakers"), index.closest("stormbrakers", 2, 10));
+        assertEquals(List.of("Stormbringers"), index.closest("Stormbrinegrs", 2, 10));
+    }
+
+    @Test
+    void removalDropsPostings() {
+        NGramIndex index = new NGramIndex();
+        index.add("Inferno");
+        int postings = index.postingCount();
+        index.add("Infernal");
+        assertTrue(index.postingCount() > postings);
+
+        index.remove("infernal");
+        assertEquals(postings, index.postingCount());
+        index.remove("Inferno");
+        assertEquals(0, index.postingCount());
+        assertEquals(0, index.gramCount());
+        assertEquals(0, index.size());
+    }
+}
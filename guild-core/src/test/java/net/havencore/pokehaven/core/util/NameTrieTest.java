@@ -0,0 +1,39 @@
+package net.havencore.pokehaven.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameTrieTest {
+    @Test
+    void prefixLookupIgnoresCaseAndKeepsDisplayNames() {
+        NameTrie trie = new NameTrie();
+        trie.add("Inferno");
+        trie.add("Ignite");
+        trie.add("Tide");
+
+        assertEquals(List.of("Ignite", "Inferno"), trie.withPrefix("I", 10));
+        assertEquals(List.of("Ignite"), trie.withPrefix("i", 1));
+        assertTrue(trie.contains("TIDE"));
+        assertFalse(trie.add("inferno"));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    void removalPrunesNodes() {
+        NameTrie trie = new NameTrie();
+        trie.add("Inferno");
+        trie.add("Ignite");
+        assertEquals(12, trie.nodeCount());
+
+        trie.remove("Inferno");
+        assertEquals(6, trie.nodeCount());
+        trie.remove("ignite");
+        assertEquals(0, trie.nodeCount());
+        assertEquals(0, trie.size());
+    }
+}
@@ -0,0 +1,63 @@
+package net.havencore.pokehaven.core.benchmark;
+
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.GuildRoster;
+import net.havencore.pokehaven.core.guilds.GuildStore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Builds populated {@link GuildStore} instances for the benchmarks through the bulk import path, so setting up
+ * 100k members does not dominate the trial. Shared with the mod's benchmarks, which import the same roster into a
+ * {@code GuildSavedData}.
+ */
+public final class GuildFixtures {
+    /** Players per faction in generated data. */
+    public static final int FACTION_SIZE = 100;
+
+    private GuildFixtures() {
+    }
+
+    /**
+     * A store holding {@link #roster(int)}.
+     */
+    public static GuildStore populated(int members) {
+        GuildStore data = new GuildStore();
+        data.importRoster(roster(members));
+        return data;
+    }
+
+    /**
+     * Spreads {@code members} players evenly over all guilds and groups them into factions of {@link #FACTION_SIZE}.
+     */
+    public static GuildRoster roster(int members) {
+        GuildName[] guilds = GuildName.values();
+        Map<UUID, GuildName> roster = new LinkedHashMap<>();
+        Map<GuildName, List<UUID>> byGuild = new LinkedHashMap<>();
+        for (int i = 0; i < members; i++) {
+            UUID player = new UUID(1L, i);
+            GuildName guild = guilds[i % guilds.length];
+            roster.put(player, guild);
+            byGuild.computeIfAbsent(guild, unused -> new ArrayList<>()).add(player);
+        }
+
+        List<GuildRoster.FactionEntry> factions = new ArrayList<>();
+        byGuild.forEach((guild, players) -> {
+            for (int start = 0; start + FACTION_SIZE <= players.size(); start += FACTION_SIZE) {
+                List<UUID> factionPlayers = players.subList(start, start + FACTION_SIZE);
+                factions.add(new GuildRoster.FactionEntry(guild, factionName(guild, start / FACTION_SIZE),
+                        factionPlayers.get(0), List.copyOf(factionPlayers)));
+            }
+        });
+
+        return new GuildRoster(roster, factions);
+    }
+
+    public static String factionName(GuildName guild, int index) {
+        return guild.name().toLowerCase() + "_faction_" + index;
+    }
+}
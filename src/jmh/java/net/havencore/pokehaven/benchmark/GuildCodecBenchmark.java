@@ -0,0 +1,54 @@
+package net.havencore.pokehaven.benchmark;
+
+import net.havencore.pokehaven.core.benchmark.GuildFixtures;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding the whole guild save through {@link GuildSavedData#ALL_GUILDS_CODEC}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GuildCodecBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int members;
+
+    private GuildSavedData data;
+    private CompoundTag saved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = GuildSavedData.create();
+        data.importRoster(GuildFixtures.roster(members));
+        saved = data.save(new CompoundTag(), null);
+    }
+
+    @Benchmark
+    public Tag encode() {
+        return GuildSavedData.ALL_GUILDS_CODEC.encodeStart(NbtOps.INSTANCE, data.getGuilds()).getOrThrow();
+    }
+
+    @Benchmark
+    public CompoundTag save() {
+        return data.save(new CompoundTag(), null);
+    }
+
+    @Benchmark
+    public GuildSavedData load() {
+        return GuildSavedData.load(saved, null);
+    }
+}
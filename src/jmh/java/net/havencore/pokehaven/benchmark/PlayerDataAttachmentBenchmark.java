@@ -0,0 +1,86 @@
+package net.havencore.pokehaven.benchmark;
+
+import net.havencore.pokehaven.capabilities.PlayerDataAttachment;
+import net.havencore.pokehaven.capabilities.PlayerDataAttachmentSerializer;
+import net.havencore.pokehaven.capabilities.PlayerDataKey;
+import net.havencore.pokehaven.capabilities.impl.PlayerGuildData;
+import net.havencore.pokehaven.capabilities.impl.PlayerPVPData;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.resources.ResourceLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copy-on-write updates and typed reads on {@link PlayerDataAttachment}, with a configurable number of unrelated
+ * values stored alongside the guild segment, and login-time decoding of the same data from the compact format and from
+ * the legacy codec format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlayerDataAttachmentBenchmark {
+    @Param({"3", "30", "300"})
+    public int extraValues;
+
+    private PlayerDataAttachment attachment;
+    private CompoundTag compact;
+    private CompoundTag legacy;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ResourceLocation segment = ResourceLocation.fromNamespaceAndPath("pokehaven", "benchmark");
+        PlayerDataAttachment filled = PlayerDataAttachment.empty()
+                .with(PlayerGuildData.GUILD_NAME, "ROCKET")
+                .with(PlayerGuildData.FACTION_NAME, "Shadow")
+                .with(PlayerGuildData.FACTION_LEADER, true)
+                .with(PlayerPVPData.PVP_BATTLES_WON, 12);
+        for (int i = 0; i < extraValues; i++) {
+            filled = filled.with(PlayerDataKey.intKey(segment, "value_" + i), i);
+        }
+        attachment = filled;
+        compact = PlayerDataAttachmentSerializer.encode(filled);
+        legacy = (CompoundTag) PlayerDataAttachment.CODEC.encodeStart(NbtOps.INSTANCE, filled).getOrThrow();
+    }
+
+    @Benchmark
+    public PlayerDataAttachment withString() {
+        return attachment.with(PlayerGuildData.FACTION_NAME, (counter++ & 1) == 0 ? "Shadow" : "Umbra");
+    }
+
+    @Benchmark
+    public PlayerDataAttachment withInt() {
+        return attachment.with(PlayerPVPData.PVP_BATTLES_WON, counter++);
+    }
+
+    @Benchmark
+    public Optional<String> getString() {
+        return attachment.get(PlayerGuildData.GUILD_NAME);
+    }
+
+    @Benchmark
+    public Optional<Integer> getInt() {
+        return attachment.get(PlayerPVPData.PVP_BATTLES_WON);
+    }
+
+    @Benchmark
+    public PlayerDataAttachment decodeCompact() {
+        return PlayerDataAttachmentSerializer.decode(compact);
+    }
+
+    @Benchmark
+    public PlayerDataAttachment decodeLegacy() {
+        return PlayerDataAttachmentSerializer.decode(legacy);
+    }
+}
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import net.havencore.pokehaven.core.metrics.Metrics;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.Item;
@@ -36,24 +37,79 @@ public class Config
             .comment("A list of items to log on common setup.")
             .defineListAllowEmpty("items", List.of("minecraft:iron_ingot"), Config::validateItemName);
 
+    private static final ModConfigSpec.IntValue GUILD_RECONCILE_BUDGET_MICROS = BUILDER
+            .comment("Time in microseconds the guild membership reconciler may spend per server tick")
+            .defineInRange("guildReconcileBudgetMicros", 200, 0, 50_000);
+
+    private static final ModConfigSpec.IntValue GUILD_RECONCILE_INTERVAL_TICKS = BUILDER
+            .comment("Ticks between the start of two guild membership sweeps over online players")
+            .defineInRange("guildReconcileIntervalTicks", 1200, 20, Integer.MAX_VALUE);
+
+    private static final ModConfigSpec.IntValue ASYNC_COMMAND_TIMEOUT_MILLIS = BUILDER
+            .comment("Milliseconds a guild listing command may run in the background before it is reported as timed out")
+            .defineInRange("asyncCommandTimeoutMillis", 5000, 100, 600_000);
+
+    private static final List<String> DEFAULT_COMMAND_RATE_LIMITS =
+            List.of("*=30:5", "guild.join=6:2", "guild.leave=6:2", "guild.faction.create=4:2");
+
+    private static final ModConfigSpec.ConfigValue<List<? extends String>> COMMAND_RATE_LIMITS = BUILDER
+            .comment("Per-player rate limits for guild commands as <command>=<uses per minute>:<burst>.",
+                    "Commands are named like guild.faction.join; '*' applies to every command without its own entry.")
+            .defineListAllowEmpty("commandRateLimits", DEFAULT_COMMAND_RATE_LIMITS, Config::validateRateLimit);
+
+    private static final ModConfigSpec.BooleanValue METRICS_ENABLED = BUILDER
+            .comment("Whether to collect guild and player data metrics, shown by /pokehaven metrics")
+            .define("metricsEnabled", false);
+
+    private static final ModConfigSpec.IntValue METRICS_LOG_INTERVAL_SECONDS = BUILDER
+            .comment("Seconds between metrics lines in the server log while metrics are enabled; 0 disables the log line")
+            .defineInRange("metricsLogIntervalSeconds", 300, 0, 86_400);
+
     static final ModConfigSpec SPEC = BUILDER.build();
 
     public static boolean logDirtBlock;
     public static int magicNumber;
     public static String magicNumberIntroduction;
     public static Set<Item> items;
+    public static int guildReconcileBudgetMicros = 200;
+    public static int guildReconcileIntervalTicks = 1200;
+    public static int asyncCommandTimeoutMillis = 5000;
+    public static List<String> commandRateLimits = DEFAULT_COMMAND_RATE_LIMITS;
+    public static boolean metricsEnabled;
+    public static int metricsLogIntervalSeconds = 300;
 
     private static boolean validateItemName(final Object obj)
     {
         return obj instanceof String itemName && BuiltInRegistries.ITEM.containsKey(ResourceLocation.parse(itemName));
     }
 
+    private static boolean validateRateLimit(final Object obj)
+    {
+        if (!(obj instanceof String entry) || !entry.matches("[a-z.*]+=\\d+(\\.\\d+)?:\\d+")) {
+            return false;
+        }
+        // A bucket needs a positive refill rate and room for at least one use.
+        try {
+            return Double.parseDouble(entry.substring(entry.indexOf('=') + 1, entry.lastIndexOf(':'))) > 0
+                    && Integer.parseInt(entry.substring(entry.lastIndexOf(':') + 1)) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     @SubscribeEvent
     static void onLoad(final ModConfigEvent event)
     {
         logDirtBlock = LOG_DIRT_BLOCK.get();
         magicNumber = MAGIC_NUMBER.get();
         magicNumberIntroduction = MAGIC_NUMBER_INTRODUCTION.get();
+        guildReconcileBudgetMicros = GUILD_RECONCILE_BUDGET_MICROS.get();
+        guildReconcileIntervalTicks = GUILD_RECONCILE_INTERVAL_TICKS.get();
+        asyncCommandTimeoutMillis = ASYNC_COMMAND_TIMEOUT_MILLIS.get();
+        commandRateLimits = List.copyOf(COMMAND_RATE_LIMITS.get());
+        metricsEnabled = METRICS_ENABLED.get();
+        metricsLogIntervalSeconds = METRICS_LOG_INTERVAL_SECONDS.get();
+        Metrics.setEnabled(metricsEnabled);
 
         // convert the list of strings into a set of items
         items = ITEM_STRINGS.get().stream()
@@ -0,0 +1,358 @@
+package net.havencore.pokehaven.capabilities;
+
+import net.havencore.pokehaven.capabilities.impl.PlayerGuildData;
+import net.havencore.pokehaven.capabilities.impl.PlayerPVPData;
+import net.havencore.pokehaven.core.metrics.LatencyHistogram;
+import net.havencore.pokehaven.core.metrics.Metrics;
+import net.havencore.pokehaven.metrics.PlayerDataUpdateEvent;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Player data view backed by a {@link PlayerDataAttachment}. Subclasses decide where the attachment lives and what
+ * happens when a new snapshot is committed. All writes are serialized on the instance so read-modify-write operations
+ * cannot lose updates; {@link PlayerDataListeners} are notified after the write completes, outside the lock. Values
+ * whose time to live has run out read as unset even before {@link PlayerDataExpiry} removes them. Segments stored with an
+ * older schema are migrated the first time they are touched (see {@link PlayerDataMigrations}); a segment whose
+ * migration fails keeps the version it reached and is retried the next time the player's data is loaded.
+ */
+public abstract class AttachmentPlayerData implements PlayerGuildData, PlayerPVPData {
+    private static final LatencyHistogram UPDATE_TIME = Metrics.histogram("playerdata.update");
+    /** Segment reported for writes that migrate several segments at once. */
+    private static final String ALL_SEGMENTS = "*";
+
+    /**
+     * Segments whose migration failed part way. They are not retried through this view, so a broken migrator costs one
+     * attempt per load of the player's data rather than one per read.
+     */
+    private volatile Set<ResourceLocation> stalledMigrations = Set.of();
+
+    AttachmentPlayerData() {
+    }
+
+    abstract PlayerDataAttachment attachment();
+
+    abstract void commit(PlayerDataAttachment updated);
+
+    /**
+     * Current game time, used to evaluate and assign expiry times.
+     */
+    abstract long gameTime();
+
+    /**
+     * The live player owning this data, or {@code null} for detached views that never notify listeners.
+     */
+    @Nullable
+    abstract Player owner();
+
+    @Nullable
+    private <T> PlayerDataListener<? super T>[] listeners(PlayerDataKey<T> key) {
+        return owner() == null ? null : PlayerDataListeners.get(key);
+    }
+
+    /**
+     * Current attachment with the given segment migrated to its latest schema. Must be called while holding the lock.
+     */
+    private PlayerDataAttachment current(ResourceLocation segmentId) {
+        PlayerDataAttachment current = attachment();
+        if (pendingMigration(current, segmentId)) {
+            PlayerDataAttachment migrated = current.migrate(segmentId);
+            if (migrated != current) {
+                write(segmentId, null, migrated);
+                current = migrated;
+            }
+            if (current.needsMigration(segmentId)) {
+                stall(segmentId);
+            }
+        }
+        return current;
+    }
+
+    private boolean pendingMigration(PlayerDataAttachment attachment, ResourceLocation segmentId) {
+        return attachment.needsMigration(segmentId) && !stalledMigrations.contains(segmentId);
+    }
+
+    private void stall(ResourceLocation segmentId) {
+        Set<ResourceLocation> stalled = new HashSet<>(stalledMigrations);
+        stalled.add(segmentId);
+        stalledMigrations = Set.copyOf(stalled);
+    }
+
+    /**
+     * Migrates every outdated segment in a single commit. Returns whether anything changed.
+     */
+    boolean migrateAll() {
+        synchronized (this) {
+            PlayerDataAttachment current = attachment();
+            PlayerDataAttachment migrated = current;
+            for (ResourceLocation segmentId : current.segments().keySet()) {
+                if (pendingMigration(migrated, segmentId)) {
+                    migrated = migrated.migrate(segmentId);
+                    if (migrated.needsMigration(segmentId)) {
+                        stall(segmentId);
+                    }
+                }
+            }
+            if (migrated == current) {
+                return false;
+            }
+            write(ALL_SEGMENTS, null, migrated);
+            return true;
+        }
+    }
+
+    /**
+     * Commits {@code updated} and records a {@link PlayerDataUpdateEvent} for the write. {@code key} is {@code null}
+     * when the whole segment changed.
+     */
+    private void write(Object segmentId, @Nullable PlayerDataKey<?> key, PlayerDataAttachment updated) {
+        PlayerDataUpdateEvent event = PlayerDataUpdateEvent.start();
+        commit(updated);
+        if (event.stop()) {
+            Map<String, PlayerDataSlot> segment = segmentId instanceof ResourceLocation id
+                    ? updated.segments().get(id)
+                    : null;
+            event.record(segmentId, key == null ? null : key.path(), segment == null ? 0 : segment.size(),
+                    owner() instanceof ServerPlayer);
+        }
+    }
+
+    private void update(ResourceLocation segmentId, @Nullable PlayerDataKey<?> key,
+                        UnaryOperator<PlayerDataAttachment> mutator) {
+        long start = Metrics.start();
+        synchronized (this) {
+            PlayerDataAttachment current = current(segmentId);
+            PlayerDataAttachment updated = mutator.apply(current);
+            if (!Objects.equals(current, updated)) {
+                write(segmentId, key, updated);
+            }
+        }
+        UPDATE_TIME.recordSince(start);
+    }
+
+    @Override
+    public <T> Optional<T> get(PlayerDataKey<T> key) {
+        PlayerDataAttachment attachment = attachment();
+        if (pendingMigration(attachment, key.segment())) {
+            synchronized (this) {
+                attachment = current(key.segment());
+            }
+        }
+        return attachment.get(key, gameTime());
+    }
+
+    @Override
+    public OptionalLong getExpiry(PlayerDataKey<?> key) {
+        PlayerDataAttachment attachment = attachment();
+        if (pendingMigration(attachment, key.segment())) {
+            synchronized (this) {
+                attachment = current(key.segment());
+            }
+        }
+        return attachment.expiry(key);
+    }
+
+    /**
+     * Always replaces the slot, so a value stored with a time to live becomes permanent even if it is unchanged.
+     */
+    @Override
+    public <T> void set(PlayerDataKey<T> key, @Nullable T value) {
+        if (listeners(key) == null) {
+            update(key.segment(), key, attachment -> attachment.with(key, value));
+            return;
+        }
+        long start = Metrics.start();
+        T previous;
+        synchronized (this) {
+            PlayerDataAttachment current = current(key.segment());
+            previous = current.get(key, gameTime()).orElse(null);
+            PlayerDataAttachment updated = current.with(key, value);
+            if (!Objects.equals(current, updated)) {
+                write(key.segment(), key, updated);
+            }
+        }
+        UPDATE_TIME.recordSince(start);
+        if (!Objects.equals(previous, value)) {
+            notifyChanged(key, previous, value);
+        }
+    }
+
+    @Override
+    public void setAll(PlayerDataKey.Value<?>... values) {
+        if (values.length == 0) {
+            return;
+        }
+        ResourceLocation segmentId = values[0].key().segment();
+        for (PlayerDataKey.Value<?> value : values) {
+            if (!value.key().segment().equals(segmentId)) {
+                throw new IllegalArgumentException("Key " + value.key() + " does not belong to segment " + segmentId);
+            }
+        }
+        long start = Metrics.start();
+        Object[] previous = new Object[values.length];
+        synchronized (this) {
+            PlayerDataAttachment current = current(segmentId);
+            PlayerDataAttachment updated = current;
+            for (int i = 0; i < values.length; i++) {
+                previous[i] = current.get(values[i].key(), gameTime()).orElse(null);
+                updated = with(updated, values[i]);
+            }
+            if (Objects.equals(current, updated)) {
+                UPDATE_TIME.recordSince(start);
+                return;
+            }
+            write(segmentId, null, updated);
+        }
+        UPDATE_TIME.recordSince(start);
+        for (int i = 0; i < values.length; i++) {
+            if (!Objects.equals(previous[i], values[i].value())) {
+                notifyChanged(values[i], previous[i]);
+            }
+        }
+    }
+
+    private static <T> PlayerDataAttachment with(PlayerDataAttachment attachment, PlayerDataKey.Value<T> value) {
+        return attachment.with(value.key(), value.value());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void notifyChanged(PlayerDataKey.Value<T> value, @Nullable Object previous) {
+        notifyChanged(value.key(), (T) previous, value.value());
+    }
+
+    @Override
+    public <T> void set(PlayerDataKey<T> key, @Nullable T value, long ttlTicks) {
+        if (value == null) {
+            set(key, null);
+            return;
+        }
+        long expiresAt = gameTime() + ttlTicks;
+        T previous;
+        synchronized (this) {
+            PlayerDataAttachment current = current(key.segment());
+            previous = current.get(key, gameTime()).orElse(null);
+            write(key.segment(), key, current.with(key, value, expiresAt));
+        }
+        Player owner = owner();
+        if (owner != null) {
+            PlayerDataExpiry.schedule(owner, key, expiresAt);
+        }
+        if (!Objects.equals(previous, value)) {
+            notifyChanged(key, previous, value);
+        }
+    }
+
+    /**
+     * Removes the value if it still carries the expiry it was scheduled with, i.e. it was not overwritten since.
+     */
+    <T> void expire(PlayerDataKey<T> key, long expiresAt) {
+        T previous;
+        synchronized (this) {
+            PlayerDataAttachment current = current(key.segment());
+            if (current.expiry(key).orElse(PlayerDataSlot.NEVER) != expiresAt) {
+                return;
+            }
+            previous = current.get(key).orElse(null);
+            write(key.segment(), key, current.with(key, null));
+        }
+        notifyChanged(key, previous, null);
+    }
+
+    @Override
+    public void clearSegment(ResourceLocation segmentId) {
+        Player owner = owner();
+        List<PlayerDataKey<?>> watched = owner == null ? List.of() : PlayerDataListeners.keysIn(segmentId);
+        if (watched.isEmpty()) {
+            update(segmentId, null, attachment -> attachment.clear(segmentId));
+            return;
+        }
+        PlayerDataAttachment before;
+        synchronized (this) {
+            before = current(segmentId);
+            PlayerDataAttachment updated = before.clear(segmentId);
+            if (updated == before) {
+                return;
+            }
+            write(segmentId, null, updated);
+        }
+        for (PlayerDataKey<?> key : watched) {
+            notifyCleared(owner, key, before);
+        }
+    }
+
+    @Override
+    @Nullable
+    public <T> T update(PlayerDataKey<T> key, UnaryOperator<T> function) {
+        long start = Metrics.start();
+        T previous;
+        T next;
+        synchronized (this) {
+            PlayerDataAttachment current = current(key.segment());
+            previous = current.get(key, gameTime()).orElse(null);
+            next = function.apply(previous);
+            if (Objects.equals(previous, next)) {
+                UPDATE_TIME.recordSince(start);
+                return next;
+            }
+            write(key.segment(), key, withRemainingExpiry(current, key, next));
+        }
+        UPDATE_TIME.recordSince(start);
+        notifyChanged(key, previous, next);
+        return next;
+    }
+
+    @Override
+    public <T> boolean compareAndSet(PlayerDataKey<T> key, @Nullable T expected, @Nullable T value) {
+        synchronized (this) {
+            PlayerDataAttachment current = current(key.segment());
+            if (!Objects.equals(current.get(key, gameTime()).orElse(null), expected)) {
+                return false;
+            }
+            if (Objects.equals(expected, value)) {
+                return true;
+            }
+            write(key.segment(), key, withRemainingExpiry(current, key, value));
+        }
+        notifyChanged(key, expected, value);
+        return true;
+    }
+
+    /**
+     * Stores {@code value}, keeping the expiry of the value it replaces if that has not run out yet. Read-modify-write
+     * operations change a value, not its lifetime; only {@link #set} decides whether a value expires.
+     */
+    private <T> PlayerDataAttachment withRemainingExpiry(PlayerDataAttachment current, PlayerDataKey<T> key,
+                                                         @Nullable T value) {
+        OptionalLong expiry = current.expiry(key);
+        if (value != null && expiry.isPresent() && expiry.getAsLong() > gameTime()) {
+            return current.with(key, value, expiry.getAsLong());
+        }
+        return current.with(key, value);
+    }
+
+    private <T> void notifyChanged(PlayerDataKey<T> key, @Nullable T previous, @Nullable T next) {
+        PlayerDataListener<? super T>[] listeners = listeners(key);
+        if (listeners != null) {
+            PlayerDataListeners.fire(listeners, owner(), key, previous, next);
+        }
+    }
+
+    private static <T> void notifyCleared(Player owner, PlayerDataKey<T> key, PlayerDataAttachment before) {
+        PlayerDataListener<? super T>[] listeners = PlayerDataListeners.get(key);
+        Optional<T> previous = before.get(key, owner.level().getGameTime());
+        if (listeners != null && previous.isPresent()) {
+            PlayerDataListeners.fire(listeners, owner, key, previous.get(), null);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package net.havencore.pokehaven.capabilities;
+
+import net.minecraft.world.entity.player.Player;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Player data view over a standalone {@link PlayerDataAttachment}, used to edit the data of players that are not
+ * loaded. Committed changes only replace the snapshot returned by {@link #snapshot()}; nothing is synced and no
+ * {@link PlayerDataListeners} are notified.
+ */
+public final class DetachedPlayerData extends AttachmentPlayerData {
+    private PlayerDataAttachment attachment;
+    private final long gameTime;
+
+    /**
+     * @param gameTime the game time used to evaluate and assign expiry times.
+     */
+    public DetachedPlayerData(PlayerDataAttachment attachment, long gameTime) {
+        this.attachment = attachment;
+        this.gameTime = gameTime;
+    }
+
+    public synchronized PlayerDataAttachment snapshot() {
+        return attachment;
+    }
+
+    @Override
+    synchronized PlayerDataAttachment attachment() {
+        return attachment;
+    }
+
+    @Override
+    synchronized void commit(PlayerDataAttachment updated) {
+        this.attachment = updated;
+    }
+
+    @Override
+    long gameTime() {
+        return gameTime;
+    }
+
+    @Override
+    @Nullable
+    Player owner() {
+        return null;
+    }
+}
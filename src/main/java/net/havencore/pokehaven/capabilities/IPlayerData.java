@@ -4,6 +4,8 @@ import net.minecraft.resources.ResourceLocation;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.UnaryOperator;
 
 public interface IPlayerData {
     /**
@@ -12,13 +14,69 @@ public interface IPlayerData {
     <T> Optional<T> get(PlayerDataKey<T> key);
 
     /**
-     * Stores a value under the supplied key. Passing {@code null} removes the value from the segment.
+     * Stores a value under the supplied key. Passing {@code null} removes the value from the segment. Any time to live
+     * of the previous value is cleared, even if the value is unchanged.
      */
     <T> void set(PlayerDataKey<T> key, @Nullable T value);
 
+    /**
+     * Stores values for several keys of one segment as a single write, with one attachment copy and sync. Each value
+     * behaves as if passed to {@link #set(PlayerDataKey, Object)}.
+     *
+     * @throws IllegalArgumentException if the keys belong to different segments.
+     */
+    void setAll(PlayerDataKey.Value<?>... values);
+
+    /**
+     * Stores a value that is removed automatically once {@code ttlTicks} game ticks have passed. The expiry is kept
+     * across logouts and restarts; storing the key again without a time to live makes the value permanent.
+     */
+    <T> void set(PlayerDataKey<T> key, @Nullable T value, long ttlTicks);
+
+    /**
+     * Returns the game time at which the value stored under the key expires, if it was stored with a time to live.
+     */
+    OptionalLong getExpiry(PlayerDataKey<?> key);
+
     /**
      * Removes every value stored in the supplied segment.
      */
     void clearSegment(ResourceLocation segmentId);
 
+    /**
+     * Atomically replaces the value stored under the key with the result of {@code function}, using a single
+     * attachment copy and sync. The function receives {@code null} when nothing is stored and may return
+     * {@code null} to remove the value. A value stored with a time to live keeps its expiry.
+     *
+     * @return the value stored after the update.
+     */
+    @Nullable
+    <T> T update(PlayerDataKey<T> key, UnaryOperator<T> function);
+
+    /**
+     * Atomically stores {@code value} if the current value equals {@code expected}; {@code null} stands for "unset".
+     * A value stored with a time to live keeps its expiry.
+     *
+     * @return whether the current value matched.
+     */
+    <T> boolean compareAndSet(PlayerDataKey<T> key, @Nullable T expected, @Nullable T value);
+
+    /**
+     * Atomically adds {@code delta} to an integer value, treating an unset value as zero.
+     *
+     * @return the updated value.
+     */
+    default int addAndGet(PlayerDataKey<Integer> key, int delta) {
+        return update(key, current -> (current == null ? 0 : current) + delta);
+    }
+
+    /**
+     * Atomically adds {@code delta} to a long value, treating an unset value as zero.
+     *
+     * @return the updated value.
+     */
+    default long addAndGet(PlayerDataKey<Long> key, long delta) {
+        return update(key, current -> (current == null ? 0L : current) + delta);
+    }
+
 }
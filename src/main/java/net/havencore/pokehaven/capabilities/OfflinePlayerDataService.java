@@ -0,0 +1,448 @@
+package net.havencore.pokehaven.capabilities;
+
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.PokeHaven;
+import net.havencore.pokehaven.util.WorkerThreads;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.storage.LevelResource;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Reads and rewrites the {@code pokehaven:player_data} attachment of players that are not online, directly in their
+ * {@code playerdata/<uuid>.dat} files.
+ *
+ * <p>Files are read, edited and written to a temporary file on a worker pool. Only the final rename happens on the
+ * server thread, inside a per-tick time budget, because that is where logins load and logouts save player files. The
+ * file of an online player is never prepared: their edits go through the live entity. A prepared file is only moved
+ * into place if the player neither logged in nor out since it was read; otherwise it is discarded and the edits are
+ * applied to the live entity, or to the file their logout saved.</p>
+ *
+ * <p>Edits that cannot be written (missing or locked file, I/O failure) stay queued and are applied when the player
+ * next logs in. Edits are code rather than data, so they cannot be persisted: any still queued when the server stops
+ * are lost, the count is logged, and the player's file keeps its previous contents.</p>
+ */
+@EventBusSubscriber(modid = PokeHaven.MODID)
+public final class OfflinePlayerDataService {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String ATTACHMENTS_KEY = "neoforge:attachments";
+    private static final String FILE_SUFFIX = ".dat";
+    private static final long COMMIT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int MAX_PREPARED_WRITES = 256;
+
+    @Nullable
+    private static OfflinePlayerDataService instance;
+
+    private final MinecraftServer server;
+    private final Path playerDir;
+    private final String attachmentKey;
+    private final ExecutorService workers;
+    private final Semaphore preparedPermits = new Semaphore(MAX_PREPARED_WRITES);
+    private final Map<UUID, Queue<PendingEdit>> pending = new ConcurrentHashMap<>();
+    private final Map<UUID, Queue<PendingEdit>> deferred = new ConcurrentHashMap<>();
+    private final Set<UUID> online = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> sessionChangedWhileInFlight = ConcurrentHashMap.newKeySet();
+    private final Queue<PreparedWrite> preparedWrites = new ConcurrentLinkedQueue<>();
+
+    private OfflinePlayerDataService(MinecraftServer server) {
+        this.server = server;
+        this.playerDir = server.getWorldPath(LevelResource.PLAYER_DATA_DIR);
+        this.attachmentKey = PlayerDataAttachments.PLAYER_DATA.getId().toString();
+        this.workers = WorkerThreads.newPool("player data I/O", Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            online.add(player.getUUID());
+        }
+    }
+
+    public static OfflinePlayerDataService get(MinecraftServer server) {
+        OfflinePlayerDataService service = instance;
+        if (service == null || service.server != server) {
+            throw new IllegalStateException("Offline player data service is not running for this server");
+        }
+        return service;
+    }
+
+    public enum EditResult {
+        /** The player was online and the edit went through their live capability. */
+        APPLIED,
+        /** The edit was written to the player's file. */
+        WRITTEN,
+        /**
+         * The file could not be written; the edit is queued until the player logs in, and lost if the server stops
+         * first.
+         */
+        DEFERRED
+    }
+
+    public record BulkResult(int applied, int written, int deferred) {
+    }
+
+    /**
+     * Applies {@code edit} to the player's data, live if they are online and in their player file otherwise.
+     * Must be called on the server thread.
+     */
+    public CompletableFuture<EditResult> edit(UUID playerId, Consumer<? super AttachmentPlayerData> edit) {
+        ServerPlayer online = server.getPlayerList().getPlayer(playerId);
+        if (online != null && !inFlight.contains(playerId)) {
+            edit.accept(PlayerDataAccess.data(online));
+            return CompletableFuture.completedFuture(EditResult.APPLIED);
+        }
+        return submit(playerId, edit);
+    }
+
+    /**
+     * Applies {@code edit} to every player with a stored file: live for online players, in the file for the others.
+     * The directory is streamed and files are processed on the worker pool, so this is safe to call with tens of
+     * thousands of players. {@code edit} runs on worker threads for offline players and must be thread-safe. Must be
+     * called on the server thread.
+     */
+    public CompletableFuture<BulkResult> editAll(BiConsumer<UUID, ? super AttachmentPlayerData> edit) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<CompletableFuture<EditResult>> results = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(playerDir, "*" + FILE_SUFFIX)) {
+                for (Path file : files) {
+                    parsePlayerId(file).ifPresent(playerId ->
+                            results.add(submit(playerId, data -> edit.accept(playerId, data))));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to list player data files", e);
+            }
+            return results;
+        }, workers).thenCompose(results -> CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(unused -> {
+                    int applied = 0;
+                    int written = 0;
+                    int deferred = 0;
+                    for (CompletableFuture<EditResult> result : results) {
+                        switch (result.join()) {
+                            case APPLIED -> applied++;
+                            case WRITTEN -> written++;
+                            case DEFERRED -> deferred++;
+                        }
+                    }
+                    return new BulkResult(applied, written, deferred);
+                }));
+    }
+
+    /**
+     * Reads the attachment stored in the player's file. For online players this is the state of their last save.
+     */
+    public CompletableFuture<Optional<PlayerDataAttachment>> read(UUID playerId) {
+        return CompletableFuture.supplyAsync(() -> {
+            Path file = playerFile(playerId);
+            if (!Files.exists(file)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(readAttachment(NbtIo.readCompressed(file, NbtAccounter.unlimitedHeap())));
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read player data for " + playerId, e);
+            }
+        }, workers);
+    }
+
+    private CompletableFuture<EditResult> submit(UUID playerId, Consumer<? super AttachmentPlayerData> edit) {
+        CompletableFuture<EditResult> future = new CompletableFuture<>();
+        PendingEdit pendingEdit = new PendingEdit(edit, future);
+        Queue<PendingEdit> waiting = deferred.get(playerId);
+        if (waiting != null && !waiting.isEmpty()) {
+            // Keep edits in submission order behind the ones already waiting for login.
+            waiting.add(pendingEdit);
+            future.complete(EditResult.DEFERRED);
+            return future;
+        }
+        enqueue(pending, playerId, List.of(pendingEdit));
+        schedule(playerId);
+        return future;
+    }
+
+    private void schedule(UUID playerId) {
+        if (inFlight.add(playerId)) {
+            workers.execute(() -> prepare(playerId));
+        }
+    }
+
+    private void prepare(UUID playerId) {
+        List<PendingEdit> edits = drain(pending, playerId);
+        if (edits.isEmpty()) {
+            release(playerId);
+            return;
+        }
+        Path file = playerFile(playerId);
+        if (online.contains(playerId)) {
+            // Their file is stale and their next save would overwrite it; apply the edits to the entity instead.
+            preparedWrites.add(new PreparedWrite(playerId, file, null, edits));
+            return;
+        }
+        Path temp = null;
+        try {
+            preparedPermits.acquire();
+            CompoundTag root = NbtIo.readCompressed(file, NbtAccounter.unlimitedHeap());
+            DetachedPlayerData data = new DetachedPlayerData(readAttachment(root), server.overworld().getGameTime());
+            edits.forEach(pendingEdit -> pendingEdit.edit().accept(data));
+            writeAttachment(root, data.snapshot());
+            temp = Files.createTempFile(playerDir, playerId + "-", FILE_SUFFIX);
+            NbtIo.writeCompressed(root, temp);
+            preparedWrites.add(new PreparedWrite(playerId, file, temp, edits));
+        } catch (IOException | RuntimeException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            } else {
+                preparedPermits.release();
+            }
+            LOGGER.warn("Could not rewrite player data for {}, deferring {} edit(s) until login: {}",
+                    playerId, edits.size(), e.toString());
+            deleteQuietly(temp);
+            defer(playerId, edits);
+            release(playerId);
+        }
+    }
+
+    private void drainPreparedWrites(long budgetNanos) {
+        long start = System.nanoTime();
+        PreparedWrite write;
+        while (System.nanoTime() - start < budgetNanos && (write = preparedWrites.poll()) != null) {
+            commit(write);
+        }
+    }
+
+    private void commit(PreparedWrite write) {
+        UUID playerId = write.playerId();
+        if (write.temp() != null) {
+            preparedPermits.release();
+            if (!sessionChangedWhileInFlight.contains(playerId)) {
+                try {
+                    Files.move(write.temp(), write.file(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    write.edits().forEach(pendingEdit -> pendingEdit.result().complete(EditResult.WRITTEN));
+                } catch (IOException e) {
+                    LOGGER.warn("Could not replace player data file for {}: {}", playerId, e.toString());
+                    deleteQuietly(write.temp());
+                    defer(playerId, write.edits());
+                }
+                release(playerId);
+                return;
+            }
+            // The player logged in or out after the file was read: either the entity loaded the old file or the
+            // logout saved a newer one, so moving the prepared file would lose data.
+            deleteQuietly(write.temp());
+        }
+        ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+        if (player != null) {
+            applyLive(player, write.edits());
+        } else {
+            // Logged out since: prepare again from the file their logout saved, ahead of anything submitted meanwhile.
+            List<PendingEdit> edits = new ArrayList<>(write.edits());
+            edits.addAll(drain(pending, playerId));
+            enqueue(pending, playerId, edits);
+        }
+        release(playerId);
+    }
+
+    private void loggedIn(ServerPlayer player) {
+        UUID playerId = player.getUUID();
+        online.add(playerId);
+        if (inFlight.contains(playerId)) {
+            sessionChangedWhileInFlight.add(playerId);
+        }
+        List<PendingEdit> edits = drain(deferred, playerId);
+        edits.addAll(drain(pending, playerId));
+        if (!edits.isEmpty()) {
+            applyLive(player, edits);
+            LOGGER.debug("Applied {} deferred player data edit(s) to {}", edits.size(), playerId);
+        }
+    }
+
+    private void loggedOut(UUID playerId) {
+        online.remove(playerId);
+        if (inFlight.contains(playerId)) {
+            sessionChangedWhileInFlight.add(playerId);
+        }
+    }
+
+    private static void applyLive(ServerPlayer player, List<PendingEdit> edits) {
+        UUID playerId = player.getUUID();
+        AttachmentPlayerData data = PlayerDataAccess.data(player);
+        for (PendingEdit pendingEdit : edits) {
+            try {
+                pendingEdit.edit().accept(data);
+                pendingEdit.result().complete(EditResult.APPLIED);
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to apply player data edit for {}", playerId, e);
+                pendingEdit.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private static List<PendingEdit> drain(Map<UUID, Queue<PendingEdit>> queues, UUID playerId) {
+        List<PendingEdit> edits = new ArrayList<>();
+        Queue<PendingEdit> queue = queues.get(playerId);
+        if (queue != null) {
+            PendingEdit pendingEdit;
+            while ((pendingEdit = queue.poll()) != null) {
+                edits.add(pendingEdit);
+            }
+        }
+        return edits;
+    }
+
+    private void defer(UUID playerId, List<PendingEdit> edits) {
+        enqueue(deferred, playerId, edits);
+        // Anything submitted while this batch was in flight has to wait behind it.
+        enqueue(deferred, playerId, drain(pending, playerId));
+        edits.forEach(pendingEdit -> pendingEdit.result().complete(EditResult.DEFERRED));
+    }
+
+    private static void enqueue(Map<UUID, Queue<PendingEdit>> queues, UUID playerId, List<PendingEdit> edits) {
+        queues.computeIfAbsent(playerId, unused -> new ConcurrentLinkedQueue<>()).addAll(edits);
+    }
+
+    private void release(UUID playerId) {
+        sessionChangedWhileInFlight.remove(playerId);
+        inFlight.remove(playerId);
+        Queue<PendingEdit> queue = pending.get(playerId);
+        if (queue != null && !queue.isEmpty()) {
+            schedule(playerId);
+        }
+    }
+
+    private void shutdown() {
+        workers.shutdown();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!workers.awaitTermination(50, TimeUnit.MILLISECONDS)) {
+                drainPreparedWrites(Long.MAX_VALUE);
+                if (System.nanoTime() > deadline) {
+                    LOGGER.warn("Timed out waiting for player data I/O to finish");
+                    workers.shutdownNow();
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+        drainPreparedWrites(Long.MAX_VALUE);
+        int dropped = pending.values().stream().mapToInt(Queue::size).sum()
+                + deferred.values().stream().mapToInt(Queue::size).sum();
+        if (dropped > 0) {
+            LOGGER.warn("Dropping {} player data edit(s) queued for offline players; they will not be applied", dropped);
+        }
+    }
+
+    private Path playerFile(UUID playerId) {
+        return playerDir.resolve(playerId + FILE_SUFFIX);
+    }
+
+    private PlayerDataAttachment readAttachment(CompoundTag root) {
+        CompoundTag attachments = root.getCompound(ATTACHMENTS_KEY);
+        return attachments.contains(attachmentKey, Tag.TAG_COMPOUND)
+                ? PlayerDataAttachmentSerializer.decode(attachments.getCompound(attachmentKey))
+                : PlayerDataAttachment.empty();
+    }
+
+    private void writeAttachment(CompoundTag root, PlayerDataAttachment attachment) {
+        CompoundTag attachments = root.getCompound(ATTACHMENTS_KEY);
+        attachments.put(attachmentKey, PlayerDataAttachmentSerializer.encode(attachment));
+        root.put(ATTACHMENTS_KEY, attachments);
+    }
+
+    private static Optional<UUID> parsePlayerId(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Optional.of(UUID.fromString(name.substring(0, name.length() - FILE_SUFFIX.length())));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void deleteQuietly(@Nullable Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete temporary player data file {}", path);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        instance = new OfflinePlayerDataService(event.getServer());
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        OfflinePlayerDataService service = instance;
+        instance = null;
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        OfflinePlayerDataService service = instance;
+        if (service != null) {
+            service.drainPreparedWrites(COMMIT_BUDGET_NANOS);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        OfflinePlayerDataService service = instance;
+        if (service != null && event.getEntity() instanceof ServerPlayer player) {
+            service.loggedIn(player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        OfflinePlayerDataService service = instance;
+        if (service != null && event.getEntity() instanceof ServerPlayer player) {
+            service.loggedOut(player.getUUID());
+        }
+    }
+
+    private record PendingEdit(Consumer<? super AttachmentPlayerData> edit, CompletableFuture<EditResult> result) {
+    }
+
+    /**
+     * A rewritten file waiting to be moved into place, or, with no {@code temp}, edits to apply to the online player.
+     */
+    private record PreparedWrite(UUID playerId, Path file, @Nullable Path temp, List<PendingEdit> edits) {
+    }
+}
@@ -13,19 +13,27 @@ public final class PlayerDataAccess {
     private PlayerDataAccess() {
     }
 
-    private static Optional<IPlayerData> resolve(Player player) {
-        return Optional.ofNullable(player.getCapability(PokeHavenCapabilities.PLAYER_DATA));
+    /**
+     * Returns the cached capability view for the player. Every player always has one, so hot paths should prefer
+     * this and the typed variants below over the {@link Optional} accessors.
+     */
+    public static PlayerDataCapability data(Player player) {
+        return player.getData(PlayerDataAttachments.PLAYER_DATA_VIEW);
+    }
+
+    public static PlayerGuildData guild(Player player) {
+        return data(player);
+    }
+
+    public static PlayerPVPData pvp(Player player) {
+        return data(player);
     }
 
     public static Optional<PlayerGuildData> get(Player player) {
-        return resolve(player)
-                .filter(PlayerGuildData.class::isInstance)
-                .map(PlayerGuildData.class::cast);
+        return Optional.of(guild(player));
     }
 
     public static Optional<PlayerPVPData> getPvp(Player player) {
-        return resolve(player)
-                .filter(PlayerPVPData.class::isInstance)
-                .map(PlayerPVPData.class::cast);
+        return Optional.of(pvp(player));
     }
 }
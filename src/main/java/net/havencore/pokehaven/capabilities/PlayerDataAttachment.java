@@ -1,27 +1,39 @@
 package net.havencore.pokehaven.capabilities;
 
+import com.mojang.logging.LogUtils;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.Dynamic;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
-import net.minecraft.resources.ResourceLocation;
+import net.havencore.pokehaven.core.metrics.HeapSize;
 import net.minecraft.nbt.NbtOps;
 import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
 
 /**
- * Immutable payload stored on a player that contains all persistent capability data grouped by segment.
+ * Immutable payload stored on a player that contains all persistent capability data grouped by segment, together with
+ * the schema version each segment was written with (see {@link PlayerDataMigrations}). Segments without a recorded
+ * version are at version 0.
  */
-public record PlayerDataAttachment(Map<ResourceLocation, Map<String, PlayerDataSlot>> segments) {
+public record PlayerDataAttachment(Map<ResourceLocation, Map<String, PlayerDataSlot>> segments,
+                                   Map<ResourceLocation, Integer> versions) {
+    private static final Logger LOGGER = LogUtils.getLogger();
     private static final Codec<Tag> TAG_CODEC = Codec.PASSTHROUGH.xmap(
             dynamic -> dynamic.convert(NbtOps.INSTANCE).getValue(),
             tag -> new Dynamic<>(NbtOps.INSTANCE, tag)
     );
 
+    /**
+     * Original verbose format that spells out the type id of every slot. Only used to read attachments saved before
+     * {@link PlayerDataAttachmentSerializer} was introduced.
+     */
     public static final Codec<PlayerDataAttachment> CODEC = RecordCodecBuilder.create(instance -> instance.group(
             Codec.unboundedMap(ResourceLocation.CODEC, Codec.unboundedMap(Codec.STRING, PlayerDataSlot.codec(TAG_CODEC).codec()))
                     .fieldOf("segments")
@@ -31,36 +43,162 @@ public record PlayerDataAttachment(Map<ResourceLocation, Map<String, PlayerDataS
     public PlayerDataAttachment {
         segments = segments.entrySet().stream()
                 .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> Map.copyOf(entry.getValue())));
+        versions = Map.copyOf(versions);
+    }
+
+    public PlayerDataAttachment(Map<ResourceLocation, Map<String, PlayerDataSlot>> segments) {
+        this(segments, Map.of());
     }
 
     public static PlayerDataAttachment empty() {
         return new PlayerDataAttachment(Map.of());
     }
 
+    public int version(ResourceLocation segmentId) {
+        return versions.getOrDefault(segmentId, 0);
+    }
+
+    /**
+     * Whether the segment holds data written with an older schema than the one currently registered.
+     */
+    public boolean needsMigration(ResourceLocation segmentId) {
+        return !PlayerDataMigrations.isEmpty()
+                && segments.containsKey(segmentId)
+                && version(segmentId) < PlayerDataMigrations.currentVersion(segmentId);
+    }
+
+    /**
+     * Runs the registered migrators for the segment, oldest first, and stamps it with the current schema version.
+     * A step that fails stops the chain: the segment keeps the changes of the steps before it and is stamped with the
+     * version they reached, so the failed step runs again on a later migration. Returns this attachment when the
+     * segment is already up to date or its first pending step fails.
+     */
+    public PlayerDataAttachment migrate(ResourceLocation segmentId) {
+        if (!needsMigration(segmentId)) {
+            return this;
+        }
+        int target = PlayerDataMigrations.currentVersion(segmentId);
+        SegmentMigration migration = new SegmentMigration(segmentId, segments.get(segmentId));
+        int reached = version(segmentId);
+        for (; reached < target; reached++) {
+            SegmentMigrator migrator = PlayerDataMigrations.migrator(segmentId, reached);
+            if (migrator != null && !migration.apply(migrator, reached)) {
+                break;
+            }
+        }
+        if (reached == version(segmentId)) {
+            return this;
+        }
+        Map<ResourceLocation, Map<String, PlayerDataSlot>> mutableSegments = deepCopy();
+        if (migration.entries().isEmpty()) {
+            mutableSegments.remove(segmentId);
+            return new PlayerDataAttachment(toImmutable(mutableSegments), withoutVersion(segmentId));
+        }
+        mutableSegments.put(segmentId, migration.entries());
+        Map<ResourceLocation, Integer> mutableVersions = new HashMap<>(versions);
+        mutableVersions.put(segmentId, reached);
+        return new PlayerDataAttachment(toImmutable(mutableSegments), mutableVersions);
+    }
+
+    /**
+     * Returns the stored value regardless of any expiry. Use {@link #get(PlayerDataKey, long)} where the current game
+     * time is known.
+     */
     public <T> Optional<T> get(PlayerDataKey<T> key) {
+        PlayerDataSlot slot = slot(key);
+        return slot == null ? Optional.empty() : decode(key, slot);
+    }
+
+    /**
+     * Returns the stored value unless it has expired at {@code gameTime}.
+     */
+    public <T> Optional<T> get(PlayerDataKey<T> key, long gameTime) {
+        PlayerDataSlot slot = slot(key);
+        return slot == null || slot.expiresAt() <= gameTime ? Optional.empty() : decode(key, slot);
+    }
+
+    /**
+     * Returns the game time at which the value stored under the key expires, if it has a time to live.
+     */
+    public OptionalLong expiry(PlayerDataKey<?> key) {
+        PlayerDataSlot slot = slot(key);
+        return slot == null || !slot.expires() ? OptionalLong.empty() : OptionalLong.of(slot.expiresAt());
+    }
+
+    public <T> PlayerDataAttachment with(PlayerDataKey<T> key, @Nullable T value) {
+        return withSlot(key, value == null ? null : PlayerDataSlot.from(key, value));
+    }
+
+    /**
+     * Stores a value that stops being visible once the game time reaches {@code expiresAt}.
+     */
+    public <T> PlayerDataAttachment with(PlayerDataKey<T> key, T value, long expiresAt) {
+        return withSlot(key, PlayerDataSlot.from(key, value, expiresAt));
+    }
+
+    /**
+     * Estimated heap retained by this attachment: its maps, entry keys and slots, using {@link Tag#sizeInBytes()} for
+     * the stored values. Segment and type ids are shared with the registry and not counted. Attachments are immutable,
+     * so this may run on any thread.
+     */
+    public long estimatedBytes() {
+        long bytes = HeapSize.object(2 * HeapSize.REFERENCE) + HeapSize.immutableMap(segments.size())
+                + HeapSize.immutableMap(versions.size()) + versions.size() * HeapSize.object(4);
+        for (Map<String, PlayerDataSlot> segment : segments.values()) {
+            bytes += HeapSize.immutableMap(segment.size());
+            for (Map.Entry<String, PlayerDataSlot> entry : segment.entrySet()) {
+                bytes += HeapSize.string(entry.getKey()) + entry.getValue().estimatedBytes();
+            }
+        }
+        return bytes;
+    }
+
+    @Nullable
+    private PlayerDataSlot slot(PlayerDataKey<?> key) {
         Map<String, PlayerDataSlot> segment = segments.get(key.segment());
         if (segment == null) {
-            return Optional.empty();
+            return null;
         }
         PlayerDataSlot slot = segment.get(key.path());
-        if (slot == null || !slot.typeId().equals(key.type().id())) {
-            return Optional.empty();
+        if (slot != null && !slot.typeId().equals(key.type().id())) {
+            LOGGER.debug("Ignoring player data {} stored as {}; register a migration for segment {} to convert it",
+                    key, slot.typeId(), key.segment());
+            return null;
         }
-        return key.type().codec().parse(new Dynamic<>(NbtOps.INSTANCE, slot.value())).result();
+        return slot;
     }
 
-    public <T> PlayerDataAttachment with(PlayerDataKey<T> key, @Nullable T value) {
+    private static <T> Optional<T> decode(PlayerDataKey<T> key, PlayerDataSlot slot) {
+        return slot.decode(key.type());
+    }
+
+    private PlayerDataAttachment withSlot(PlayerDataKey<?> key, @Nullable PlayerDataSlot slot) {
         Map<ResourceLocation, Map<String, PlayerDataSlot>> mutableSegments = deepCopy();
-        Map<String, PlayerDataSlot> segment = mutableSegments.computeIfAbsent(key.segment(), unused -> new HashMap<>());
-        if (value == null) {
+        Map<ResourceLocation, Integer> mutableVersions = versions;
+        Map<String, PlayerDataSlot> segment = mutableSegments.get(key.segment());
+        if (segment == null) {
+            if (slot == null) {
+                return this;
+            }
+            // A new segment is written in the current schema; existing ones keep their version until migrated.
+            segment = new HashMap<>();
+            mutableSegments.put(key.segment(), segment);
+            int current = PlayerDataMigrations.currentVersion(key.segment());
+            if (current > 0) {
+                mutableVersions = new HashMap<>(versions);
+                mutableVersions.put(key.segment(), current);
+            }
+        }
+        if (slot == null) {
             segment.remove(key.path());
             if (segment.isEmpty()) {
                 mutableSegments.remove(key.segment());
+                mutableVersions = withoutVersion(key.segment());
             }
         } else {
-            segment.put(key.path(), PlayerDataSlot.from(key, value));
+            segment.put(key.path(), slot);
         }
-        return new PlayerDataAttachment(toImmutable(mutableSegments));
+        return new PlayerDataAttachment(toImmutable(mutableSegments), mutableVersions);
     }
 
     public PlayerDataAttachment clear(ResourceLocation segmentId) {
@@ -69,7 +207,16 @@ public record PlayerDataAttachment(Map<ResourceLocation, Map<String, PlayerDataS
         }
         Map<ResourceLocation, Map<String, PlayerDataSlot>> mutableSegments = deepCopy();
         mutableSegments.remove(segmentId);
-        return new PlayerDataAttachment(toImmutable(mutableSegments));
+        return new PlayerDataAttachment(toImmutable(mutableSegments), withoutVersion(segmentId));
+    }
+
+    private Map<ResourceLocation, Integer> withoutVersion(ResourceLocation segmentId) {
+        if (!versions.containsKey(segmentId)) {
+            return versions;
+        }
+        Map<ResourceLocation, Integer> mutableVersions = new HashMap<>(versions);
+        mutableVersions.remove(segmentId);
+        return mutableVersions;
     }
 
     private Map<ResourceLocation, Map<String, PlayerDataSlot>> deepCopy() {
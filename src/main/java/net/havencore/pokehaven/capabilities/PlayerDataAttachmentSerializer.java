@@ -0,0 +1,166 @@
+package net.havencore.pokehaven.capabilities;
+
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.core.metrics.LatencyHistogram;
+import net.havencore.pokehaven.core.metrics.Metrics;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.neoforge.attachment.IAttachmentHolder;
+import net.neoforged.neoforge.attachment.IAttachmentSerializer;
+import org.slf4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact, versioned NBT serializer for {@link PlayerDataAttachment}.
+ *
+ * <p>Every type id is written once into a table and slots refer to it by index. Slot values are stored as the raw
+ * tags produced by their {@link PlayerDataType} codec, so reading them back never goes through a {@code Dynamic}
+ * conversion:</p>
+ * <pre>{@code
+ * { v: 1, types: ["pokehaven:string", ...], segments: { "pokehaven:guild": { "guild_name": { t: 0, v: "ROCKET" } } } }
+ * }</pre>
+ * Slots with a time to live additionally carry their expiry game time as {@code e}, and segments with a recorded
+ * schema version are listed in an {@code sv} compound keyed by segment id.
+ *
+ * <p>Attachments saved before the compact format existed carry no {@code v} field and are read through
+ * {@link PlayerDataAttachment#CODEC}; they are rewritten in the compact format on the next save. Decode times of
+ * both formats are reported as the {@code playerdata.decode.compact} and {@code playerdata.decode.legacy} metrics.</p>
+ */
+public final class PlayerDataAttachmentSerializer implements IAttachmentSerializer<CompoundTag, PlayerDataAttachment> {
+    public static final PlayerDataAttachmentSerializer INSTANCE = new PlayerDataAttachmentSerializer();
+    public static final int FORMAT_VERSION = 1;
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String VERSION_KEY = "v";
+    private static final String TYPES_KEY = "types";
+    private static final String SEGMENTS_KEY = "segments";
+    private static final String TYPE_KEY = "t";
+    private static final String VALUE_KEY = "v";
+    private static final String EXPIRY_KEY = "e";
+    private static final String SEGMENT_VERSIONS_KEY = "sv";
+
+    private static final LatencyHistogram COMPACT_DECODE_TIME = Metrics.histogram("playerdata.decode.compact");
+    private static final LatencyHistogram LEGACY_DECODE_TIME = Metrics.histogram("playerdata.decode.legacy");
+
+    private PlayerDataAttachmentSerializer() {
+    }
+
+    @Override
+    public PlayerDataAttachment read(IAttachmentHolder holder, CompoundTag tag, HolderLookup.Provider provider) {
+        return decode(tag);
+    }
+
+    @Override
+    public CompoundTag write(PlayerDataAttachment attachment, HolderLookup.Provider provider) {
+        return encode(attachment);
+    }
+
+    public static PlayerDataAttachment decode(CompoundTag tag) {
+        long start = Metrics.start();
+        if (tag.contains(VERSION_KEY, Tag.TAG_ANY_NUMERIC)) {
+            PlayerDataAttachment attachment = readCompact(tag);
+            COMPACT_DECODE_TIME.recordSince(start);
+            return attachment;
+        }
+        PlayerDataAttachment attachment = readLegacy(tag);
+        LEGACY_DECODE_TIME.recordSince(start);
+        return attachment;
+    }
+
+    public static CompoundTag encode(PlayerDataAttachment attachment) {
+        Map<ResourceLocation, Integer> typeIndices = new HashMap<>();
+        ListTag typeTable = new ListTag();
+        CompoundTag segmentsTag = new CompoundTag();
+
+        for (Map.Entry<ResourceLocation, Map<String, PlayerDataSlot>> segment : attachment.segments().entrySet()) {
+            CompoundTag entriesTag = new CompoundTag();
+            for (Map.Entry<String, PlayerDataSlot> entry : segment.getValue().entrySet()) {
+                PlayerDataSlot slot = entry.getValue();
+                Integer typeIndex = typeIndices.get(slot.typeId());
+                if (typeIndex == null) {
+                    typeIndex = typeTable.size();
+                    typeIndices.put(slot.typeId(), typeIndex);
+                    typeTable.add(StringTag.valueOf(slot.typeId().toString()));
+                }
+                CompoundTag slotTag = new CompoundTag();
+                slotTag.putInt(TYPE_KEY, typeIndex);
+                slotTag.put(VALUE_KEY, slot.value().copy());
+                if (slot.expires()) {
+                    slotTag.putLong(EXPIRY_KEY, slot.expiresAt());
+                }
+                entriesTag.put(entry.getKey(), slotTag);
+            }
+            segmentsTag.put(segment.getKey().toString(), entriesTag);
+        }
+
+        CompoundTag tag = new CompoundTag();
+        tag.putInt(VERSION_KEY, FORMAT_VERSION);
+        tag.put(TYPES_KEY, typeTable);
+        tag.put(SEGMENTS_KEY, segmentsTag);
+        if (!attachment.versions().isEmpty()) {
+            CompoundTag versionsTag = new CompoundTag();
+            attachment.versions().forEach((segmentId, version) -> versionsTag.putInt(segmentId.toString(), version));
+            tag.put(SEGMENT_VERSIONS_KEY, versionsTag);
+        }
+        return tag;
+    }
+
+    private static PlayerDataAttachment readCompact(CompoundTag tag) {
+        ListTag typeTable = tag.getList(TYPES_KEY, Tag.TAG_STRING);
+        ResourceLocation[] types = new ResourceLocation[typeTable.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = ResourceLocation.tryParse(typeTable.getString(i));
+        }
+
+        CompoundTag segmentsTag = tag.getCompound(SEGMENTS_KEY);
+        Map<ResourceLocation, Map<String, PlayerDataSlot>> segments = new HashMap<>();
+        for (String segmentKey : segmentsTag.getAllKeys()) {
+            ResourceLocation segmentId = ResourceLocation.tryParse(segmentKey);
+            if (segmentId == null) {
+                LOGGER.warn("Skipping player data segment with invalid id {}", segmentKey);
+                continue;
+            }
+            CompoundTag entriesTag = segmentsTag.getCompound(segmentKey);
+            Map<String, PlayerDataSlot> entries = new HashMap<>();
+            for (String path : entriesTag.getAllKeys()) {
+                CompoundTag slotTag = entriesTag.getCompound(path);
+                int typeIndex = slotTag.getInt(TYPE_KEY);
+                Tag value = slotTag.get(VALUE_KEY);
+                if (value == null || typeIndex < 0 || typeIndex >= types.length || types[typeIndex] == null) {
+                    LOGGER.warn("Skipping malformed player data slot {}/{}", segmentId, path);
+                    continue;
+                }
+                long expiresAt = slotTag.contains(EXPIRY_KEY, Tag.TAG_ANY_NUMERIC)
+                        ? slotTag.getLong(EXPIRY_KEY)
+                        : PlayerDataSlot.NEVER;
+                entries.put(path, PlayerDataSlot.of(types[typeIndex], value, expiresAt));
+            }
+            if (!entries.isEmpty()) {
+                segments.put(segmentId, entries);
+            }
+        }
+
+        CompoundTag versionsTag = tag.getCompound(SEGMENT_VERSIONS_KEY);
+        Map<ResourceLocation, Integer> versions = new HashMap<>();
+        for (String segmentKey : versionsTag.getAllKeys()) {
+            ResourceLocation segmentId = ResourceLocation.tryParse(segmentKey);
+            if (segmentId != null && segments.containsKey(segmentId)) {
+                versions.put(segmentId, versionsTag.getInt(segmentKey));
+            }
+        }
+        return new PlayerDataAttachment(segments, versions);
+    }
+
+    private static PlayerDataAttachment readLegacy(CompoundTag tag) {
+        return PlayerDataAttachment.CODEC.parse(NbtOps.INSTANCE, tag)
+                .resultOrPartial(error -> LOGGER.error("Failed to read legacy player data: {}", error))
+                .orElseGet(PlayerDataAttachment::empty);
+    }
+}
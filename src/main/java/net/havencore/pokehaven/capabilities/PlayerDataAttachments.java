@@ -1,6 +1,7 @@
 package net.havencore.pokehaven.capabilities;
 
 import net.havencore.pokehaven.PokeHaven;
+import net.minecraft.world.entity.player.Player;
 import net.neoforged.neoforge.attachment.AttachmentType;
 import net.neoforged.neoforge.registries.DeferredHolder;
 import net.neoforged.neoforge.registries.DeferredRegister;
@@ -19,7 +20,16 @@ public final class PlayerDataAttachments {
     public static final DeferredHolder<AttachmentType<?>, AttachmentType<PlayerDataAttachment>> PLAYER_DATA =
             ATTACHMENT_TYPES.register("player_data",
                     () -> AttachmentType.builder(PlayerDataAttachment::empty)
-                            .serialize(PlayerDataAttachment.CODEC)
+                            .serialize(PlayerDataAttachmentSerializer.INSTANCE)
                             .copyOnDeath()
                             .build());
+
+    /**
+     * Per-entity cache of the capability view so lookups don't construct a new wrapper every time. It is never
+     * serialized and so never copied: a respawned or cloned player gets a fresh view bound to the new entity from the
+     * default supplier.
+     */
+    public static final DeferredHolder<AttachmentType<?>, AttachmentType<PlayerDataCapability>> PLAYER_DATA_VIEW =
+            ATTACHMENT_TYPES.register("player_data_view",
+                    () -> AttachmentType.builder(holder -> new PlayerDataCapability((Player) holder)).build());
 }
@@ -1,53 +1,103 @@
 package net.havencore.pokehaven.capabilities;
 
-import net.havencore.pokehaven.capabilities.impl.PlayerGuildData;
-import net.havencore.pokehaven.capabilities.impl.PlayerPVPData;
-import net.minecraft.resources.ResourceLocation;
+import net.havencore.pokehaven.core.guilds.Faction;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.metrics.Counter;
+import net.havencore.pokehaven.core.metrics.Metrics;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Player;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Objects;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
 
 /**
  * Capability implementation backed by {@link PlayerDataAttachment} stored on the player via NeoForge attachments.
+ *
+ * <p>On the server, guild membership is read through from {@link GuildSavedData}, which owns it. The guild segment of
+ * the attachment only holds a projection for the client, kept current by
+ * {@link net.havencore.pokehaven.guilds.GuildMembershipReconciler}.</p>
  */
-public final class PlayerDataCapability implements PlayerGuildData, PlayerPVPData {
+public final class PlayerDataCapability extends AttachmentPlayerData {
+    private static final Counter COMMITS = Metrics.counter("playerdata.commits");
+    private static final Counter SYNCS = Metrics.counter("playerdata.syncs");
+
+    /** Guild names as returned by {@link #getGuildName()}, built once so the read does not allocate. */
+    private static final Map<GuildName, Optional<String>> GUILD_NAMES = new EnumMap<>(GuildName.class);
+
+    static {
+        for (GuildName guild : GuildName.values()) {
+            GUILD_NAMES.put(guild, Optional.of(guild.name()));
+        }
+    }
+
     private final Player player;
 
     public PlayerDataCapability(Player player) {
         this.player = player;
     }
 
-    private PlayerDataAttachment attachment() {
+    @Override
+    PlayerDataAttachment attachment() {
         return player.getData(PlayerDataAttachments.PLAYER_DATA.get());
     }
 
-    private void update(Function<PlayerDataAttachment, PlayerDataAttachment> mutator) {
-        PlayerDataAttachment current = attachment();
-        PlayerDataAttachment updated = mutator.apply(current);
-        if (!Objects.equals(current, updated)) {
-            player.setData(PlayerDataAttachments.PLAYER_DATA.get(), updated);
-            if (player instanceof ServerPlayer serverPlayer) {
-                serverPlayer.syncData(PlayerDataAttachments.PLAYER_DATA.get());
-            }
+    @Override
+    long gameTime() {
+        return player.level().getGameTime();
+    }
+
+    @Override
+    Player owner() {
+        return player;
+    }
+
+    @Nullable
+    private GuildSavedData guildData() {
+        MinecraftServer server = player.getServer();
+        return server == null ? null : GuildSavedData.get(server);
+    }
+
+    @Override
+    public Optional<String> getGuildName() {
+        GuildSavedData guildData = guildData();
+        if (guildData == null) {
+            return get(GUILD_NAME);
         }
+        GuildName guild = guildData.getGuildOfPlayer(player.getUUID());
+        return guild == null ? Optional.empty() : GUILD_NAMES.get(guild);
     }
 
     @Override
-    public <T> Optional<T> get(PlayerDataKey<T> key) {
-        return attachment().get(key);
+    public Optional<String> getFactionName() {
+        GuildSavedData guildData = guildData();
+        if (guildData == null) {
+            return get(FACTION_NAME);
+        }
+        return guildData.getFactionForPlayer(player.getUUID()).map(Faction::getName);
     }
 
     @Override
-    public <T> void set(PlayerDataKey<T> key, @Nullable T value) {
-        update(attachment -> attachment.with(key, value));
+    public boolean isFactionLeader() {
+        GuildSavedData guildData = guildData();
+        if (guildData == null) {
+            return get(FACTION_LEADER).orElse(false);
+        }
+        return guildData.getFactionForPlayer(player.getUUID())
+                .map(faction -> faction.getLeader().equals(player.getUUID()))
+                .orElse(false);
     }
 
     @Override
-    public void clearSegment(ResourceLocation segmentId) {
-        update(attachment -> attachment.clear(segmentId));
+    void commit(PlayerDataAttachment updated) {
+        player.setData(PlayerDataAttachments.PLAYER_DATA.get(), updated);
+        COMMITS.increment();
+        if (player instanceof ServerPlayer serverPlayer) {
+            serverPlayer.syncData(PlayerDataAttachments.PLAYER_DATA.get());
+            SYNCS.increment();
+        }
     }
 }
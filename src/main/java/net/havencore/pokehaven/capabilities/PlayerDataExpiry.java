@@ -0,0 +1,114 @@
+package net.havencore.pokehaven.capabilities;
+
+import net.havencore.pokehaven.PokeHaven;
+import net.havencore.pokehaven.util.TimingWheel;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Removes player data values whose time to live has run out. Expiry times are stored in the attachment as absolute game
+ * time, so they survive logouts and restarts; this class only tracks the online players' expirations in a
+ * {@link TimingWheel} so each tick touches nothing but the values that are due. Each (player, key, expiry) is scheduled
+ * at most once: entries for players who went offline are dropped when they come due, and logging in again only
+ * registers expirations that are not already in the wheel. Reads never depend on this schedule:
+ * {@link AttachmentPlayerData#get} already hides expired values.
+ */
+@EventBusSubscriber(modid = PokeHaven.MODID)
+public final class PlayerDataExpiry {
+    private static final int WHEEL_BUCKETS = 1024;
+    private static final Queue<Expiration> SCHEDULED = new ConcurrentLinkedQueue<>();
+    private static final Set<Expiration> PENDING = ConcurrentHashMap.newKeySet();
+
+    @Nullable
+    private static TimingWheel<Expiration> wheel;
+
+    private PlayerDataExpiry() {
+    }
+
+    /**
+     * Registers an expiration. Safe to call from any thread; it is picked up on the next server tick.
+     */
+    static void schedule(Player player, PlayerDataKey<?> key, long expiresAt) {
+        if (player instanceof ServerPlayer) {
+            Expiration expiration = new Expiration(player.getUUID(), key, expiresAt);
+            if (PENDING.add(expiration)) {
+                SCHEDULED.add(expiration);
+            }
+        }
+    }
+
+    private static void scheduleAll(ServerPlayer player) {
+        PlayerDataAttachment attachment = PlayerDataAccess.data(player).attachment();
+        for (Map.Entry<ResourceLocation, Map<String, PlayerDataSlot>> segment : attachment.segments().entrySet()) {
+            for (Map.Entry<String, PlayerDataSlot> entry : segment.getValue().entrySet()) {
+                PlayerDataSlot slot = entry.getValue();
+                if (slot.expires()) {
+                    PlayerDataTypes.find(slot.typeId()).ifPresent(type -> schedule(player,
+                            new PlayerDataKey<>(segment.getKey(), entry.getKey(), type), slot.expiresAt()));
+                }
+            }
+        }
+    }
+
+    private static void expire(MinecraftServer server, Expiration expiration) {
+        PENDING.remove(expiration);
+        ServerPlayer player = server.getPlayerList().getPlayer(expiration.playerId());
+        if (player != null) {
+            PlayerDataAccess.data(player).expire(expiration.key(), expiration.expiresAt());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        SCHEDULED.clear();
+        PENDING.clear();
+        wheel = new TimingWheel<>(WHEEL_BUCKETS, event.getServer().overworld().getGameTime());
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        wheel = null;
+        SCHEDULED.clear();
+        PENDING.clear();
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        TimingWheel<Expiration> current = wheel;
+        if (current == null) {
+            return;
+        }
+        Expiration expiration;
+        while ((expiration = SCHEDULED.poll()) != null) {
+            current.schedule(expiration, expiration.expiresAt());
+        }
+        MinecraftServer server = event.getServer();
+        current.advance(server.overworld().getGameTime(), due -> expire(server, due));
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            scheduleAll(player);
+        }
+    }
+
+    private record Expiration(UUID playerId, PlayerDataKey<?> key, long expiresAt) {
+    }
+}
@@ -2,6 +2,7 @@ package net.havencore.pokehaven.capabilities;
 
 import net.minecraft.resources.ResourceLocation;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Identifies a single value stored within a {@link PlayerDataAttachment}. A key is defined by the segment it belongs to,
@@ -46,4 +47,14 @@ public record PlayerDataKey<T>(@NotNull ResourceLocation segment,
     public static PlayerDataKey<Double> doubleKey(ResourceLocation segment, String path) {
         return new PlayerDataKey<>(segment, path, PlayerDataTypes.DOUBLE);
     }
+
+    /**
+     * Pairs this key with a value for {@link IPlayerData#setAll}; {@code null} removes the value.
+     */
+    public Value<T> value(@Nullable T value) {
+        return new Value<>(this, value);
+    }
+
+    public record Value<T>(PlayerDataKey<T> key, @Nullable T value) {
+    }
 }
@@ -0,0 +1,12 @@
+package net.havencore.pokehaven.capabilities;
+
+import net.minecraft.world.entity.player.Player;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Callback fired synchronously after a committed change to a {@link PlayerDataKey}. {@code null} stands for "unset".
+ */
+@FunctionalInterface
+public interface PlayerDataListener<T> {
+    void onChanged(Player player, @Nullable T oldValue, @Nullable T newValue);
+}
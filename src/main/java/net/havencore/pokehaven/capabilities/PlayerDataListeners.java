@@ -0,0 +1,69 @@
+package net.havencore.pokehaven.capabilities;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.player.Player;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of per-key change listeners for live player data. The lookup tables are rebuilt on registration and
+ * published as immutable snapshots, so dispatch is a single map lookup and keys without listeners skip decoding the
+ * previous value entirely. Edits made through {@link DetachedPlayerData} do not notify listeners.
+ */
+public final class PlayerDataListeners {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static volatile Map<PlayerDataKey<?>, PlayerDataListener<?>[]> listenersByKey = Map.of();
+    private static volatile Map<ResourceLocation, List<PlayerDataKey<?>>> keysBySegment = Map.of();
+
+    private PlayerDataListeners() {
+    }
+
+    public static synchronized <T> void register(PlayerDataKey<T> key, PlayerDataListener<? super T> listener) {
+        Map<PlayerDataKey<?>, PlayerDataListener<?>[]> listeners = new HashMap<>(listenersByKey);
+        PlayerDataListener<?>[] current = listeners.get(key);
+        PlayerDataListener<?>[] updated = current == null
+                ? new PlayerDataListener<?>[1]
+                : Arrays.copyOf(current, current.length + 1);
+        updated[updated.length - 1] = listener;
+        listeners.put(key, updated);
+
+        Map<ResourceLocation, List<PlayerDataKey<?>>> segments = new HashMap<>();
+        for (PlayerDataKey<?> watched : listeners.keySet()) {
+            segments.computeIfAbsent(watched.segment(), unused -> new ArrayList<>()).add(watched);
+        }
+        segments.replaceAll((segment, keys) -> List.copyOf(keys));
+
+        listenersByKey = Map.copyOf(listeners);
+        keysBySegment = Map.copyOf(segments);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    static <T> PlayerDataListener<? super T>[] get(PlayerDataKey<T> key) {
+        Map<PlayerDataKey<?>, PlayerDataListener<?>[]> listeners = listenersByKey;
+        return listeners.isEmpty() ? null : (PlayerDataListener<? super T>[]) listeners.get(key);
+    }
+
+    static List<PlayerDataKey<?>> keysIn(ResourceLocation segmentId) {
+        return keysBySegment.getOrDefault(segmentId, List.of());
+    }
+
+    static <T> void fire(PlayerDataListener<? super T>[] listeners, Player player, PlayerDataKey<T> key,
+                         @Nullable T oldValue, @Nullable T newValue) {
+        for (PlayerDataListener<? super T> listener : listeners) {
+            try {
+                listener.onChanged(player, oldValue, newValue);
+            } catch (RuntimeException e) {
+                LOGGER.error("Player data listener for {}/{} failed", key.segment(), key.path(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package net.havencore.pokehaven.capabilities;
+
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.PokeHaven;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of per-segment schema migrations for player data.
+ *
+ * <p>Each segment has a schema version, the highest {@code fromVersion + 1} registered for it (0 when it has no
+ * migrations). Attachments remember the version every segment was written with, and outdated segments are upgraded
+ * lazily: the first read or write of a segment migrates it, and players who log in are queued for a background pass
+ * that migrates their remaining segments within a small per-tick budget. Nothing is migrated at startup.</p>
+ *
+ * <p>Migrations should be registered during mod construction, before any player data is loaded.</p>
+ */
+@EventBusSubscriber(modid = PokeHaven.MODID)
+public final class PlayerDataMigrations {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final long TICK_BUDGET_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private static final Map<ResourceLocation, Map<Integer, SegmentMigrator>> MIGRATORS = new ConcurrentHashMap<>();
+    private static final Map<ResourceLocation, Integer> CURRENT_VERSIONS = new ConcurrentHashMap<>();
+    private static final Queue<UUID> PENDING = new ConcurrentLinkedQueue<>();
+
+    private static volatile boolean empty = true;
+
+    private PlayerDataMigrations() {
+    }
+
+    /**
+     * Registers the step that upgrades {@code segment} from {@code fromVersion} to {@code fromVersion + 1}.
+     */
+    public static void register(ResourceLocation segment, int fromVersion, SegmentMigrator migrator) {
+        if (fromVersion < 0) {
+            throw new IllegalArgumentException("Migration versions start at 0, got " + fromVersion);
+        }
+        SegmentMigrator existing = MIGRATORS.computeIfAbsent(segment, unused -> new ConcurrentHashMap<>())
+                .putIfAbsent(fromVersion, migrator);
+        if (existing != null) {
+            throw new IllegalStateException("A migration for " + segment + " from version " + fromVersion
+                    + " is already registered.");
+        }
+        CURRENT_VERSIONS.merge(segment, fromVersion + 1, Math::max);
+        empty = false;
+    }
+
+    public static int currentVersion(ResourceLocation segment) {
+        return empty ? 0 : CURRENT_VERSIONS.getOrDefault(segment, 0);
+    }
+
+    @Nullable
+    static SegmentMigrator migrator(ResourceLocation segment, int fromVersion) {
+        Map<Integer, SegmentMigrator> migrators = MIGRATORS.get(segment);
+        return migrators == null ? null : migrators.get(fromVersion);
+    }
+
+    static boolean isEmpty() {
+        return empty;
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (!empty && event.getEntity() instanceof ServerPlayer player) {
+            PENDING.add(player.getUUID());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        if (PENDING.isEmpty()) {
+            return;
+        }
+        long deadline = System.nanoTime() + TICK_BUDGET_NANOS;
+        UUID playerId;
+        int migrated = 0;
+        while (System.nanoTime() < deadline && (playerId = PENDING.poll()) != null) {
+            ServerPlayer player = event.getServer().getPlayerList().getPlayer(playerId);
+            if (player != null && PlayerDataAccess.data(player).migrateAll()) {
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            LOGGER.debug("Migrated player data for {} players, {} still queued", migrated, PENDING.size());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        PENDING.clear();
+    }
+}
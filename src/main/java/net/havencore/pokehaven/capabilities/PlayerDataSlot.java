@@ -1,36 +1,59 @@
 package net.havencore.pokehaven.capabilities;
 
 import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.Dynamic;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
-import com.mojang.serialization.DataResult;
+import net.havencore.pokehaven.core.metrics.HeapSize;
 import net.minecraft.nbt.NbtOps;
 import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
+import java.util.Optional;
 
 final class PlayerDataSlot {
+    /**
+     * Expiry marker for slots that never expire.
+     */
+    static final long NEVER = Long.MAX_VALUE;
+
     private final ResourceLocation typeId;
     private final Tag value;
+    private final long expiresAt;
+    /**
+     * Last decoded value. Slots never change, so reads after the first one reuse it instead of parsing the tag again.
+     */
+    @Nullable
+    private volatile Decoded decoded;
 
-    private PlayerDataSlot(ResourceLocation typeId, Tag value) {
+    private PlayerDataSlot(ResourceLocation typeId, Tag value, long expiresAt) {
         this.typeId = typeId;
         this.value = value;
+        this.expiresAt = expiresAt;
     }
 
     static <T> PlayerDataSlot from(PlayerDataKey<T> key, T value) {
+        return from(key, value, NEVER);
+    }
+
+    static <T> PlayerDataSlot from(PlayerDataKey<T> key, T value, long expiresAt) {
         DataResult<Tag> encoded = key.type().codec().encodeStart(NbtOps.INSTANCE, value);
         Tag tag = encoded.getOrThrow(error -> new IllegalStateException("Failed to encode player data for key " + key + ": " + error));
-        return new PlayerDataSlot(key.type().id(), tag);
+        return new PlayerDataSlot(key.type().id(), tag, expiresAt);
+    }
+
+    static PlayerDataSlot of(ResourceLocation typeId, Tag value, long expiresAt) {
+        return new PlayerDataSlot(typeId, value, expiresAt);
     }
 
     static MapCodec<PlayerDataSlot> codec(Codec<Tag> tagCodec) {
         return RecordCodecBuilder.mapCodec(instance -> instance.group(
                 ResourceLocation.CODEC.fieldOf("type").forGetter(PlayerDataSlot::typeId),
                 tagCodec.fieldOf("value").forGetter(PlayerDataSlot::value)
-        ).apply(instance, PlayerDataSlot::new));
+        ).apply(instance, (typeId, value) -> new PlayerDataSlot(typeId, value, NEVER)));
     }
 
     ResourceLocation typeId() {
@@ -41,19 +64,53 @@ final class PlayerDataSlot {
         return value;
     }
 
+    /**
+     * Game time at which the slot stops being visible, or {@link #NEVER}.
+     */
+    long expiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Estimated heap size of this slot and its tag, not counting the shared type id or the cached decoded value.
+     */
+    long estimatedBytes() {
+        return HeapSize.object(3 * HeapSize.REFERENCE + 8) + value.sizeInBytes();
+    }
+
+    boolean expires() {
+        return expiresAt != NEVER;
+    }
+
+    /**
+     * Decodes the stored tag with {@code type}, caching the result on the slot.
+     */
+    @SuppressWarnings("unchecked")
+    <T> Optional<T> decode(PlayerDataType<T> type) {
+        Decoded cached = decoded;
+        if (cached == null || cached.type() != type) {
+            cached = new Decoded(type, type.codec().parse(new Dynamic<>(NbtOps.INSTANCE, value)).result());
+            decoded = cached;
+        }
+        return (Optional<T>) cached.value();
+    }
+
+    private record Decoded(PlayerDataType<?> type, Optional<?> value) {
+    }
+
     @Override
     public boolean equals(@Nullable Object obj) {
         if (this == obj) {
             return true;
         }
         if (obj instanceof PlayerDataSlot other) {
-            return typeId.equals(other.typeId) && value.equals(other.value);
+            return typeId.equals(other.typeId) && value.equals(other.value) && expiresAt == other.expiresAt;
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(typeId, value);
+        return Objects.hash(typeId, value, expiresAt);
     }
 }
@@ -28,6 +28,10 @@ public final class PlayerDataTypes {
         return register(ResourceLocation.fromNamespaceAndPath(PokeHaven.MODID, path), codec);
     }
 
+    /**
+     * Registers a type. Decoded values are cached and handed to every reader, so the codec should produce immutable
+     * values.
+     */
     public static <T> PlayerDataType<T> register(ResourceLocation id, Codec<T> codec) {
         PlayerDataType<T> type = new PlayerDataType<>(id, codec);
         PlayerDataType<?> existing = TYPES.putIfAbsent(id, type);
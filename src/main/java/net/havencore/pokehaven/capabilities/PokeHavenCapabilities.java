@@ -19,6 +19,6 @@ public final class PokeHavenCapabilities {
     );
 
     public static void register(RegisterCapabilitiesEvent event) {
-        event.registerEntity(PLAYER_DATA, EntityType.PLAYER, (player, context) -> new PlayerDataCapability(player));
+        event.registerEntity(PLAYER_DATA, EntityType.PLAYER, (player, context) -> player.getData(PlayerDataAttachments.PLAYER_DATA_VIEW));
     }
 }
@@ -0,0 +1,93 @@
+package net.havencore.pokehaven.capabilities;
+
+import com.mojang.logging.LogUtils;
+import com.mojang.serialization.Dynamic;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Mutable view of a single segment handed to {@link SegmentMigrator}s. Changes are only applied to the player's data
+ * once the pending steps have run; a step that throws is rolled back and logged, and the steps after it are skipped.
+ */
+public final class SegmentMigration {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private final ResourceLocation segmentId;
+    private Map<String, PlayerDataSlot> entries;
+
+    SegmentMigration(ResourceLocation segmentId, Map<String, PlayerDataSlot> entries) {
+        this.segmentId = segmentId;
+        this.entries = new HashMap<>(entries);
+    }
+
+    public ResourceLocation segment() {
+        return segmentId;
+    }
+
+    public Set<String> paths() {
+        return Set.copyOf(entries.keySet());
+    }
+
+    /**
+     * Type id the value at {@code path} is currently stored with, which lets a migrator convert values whose
+     * {@link PlayerDataType} changed.
+     */
+    public Optional<ResourceLocation> type(String path) {
+        PlayerDataSlot slot = entries.get(path);
+        return slot == null ? Optional.empty() : Optional.of(slot.typeId());
+    }
+
+    /**
+     * Reads the value stored at {@code path} with the given type, keeping its original expiry untouched.
+     */
+    public <T> Optional<T> read(String path, PlayerDataType<T> type) {
+        PlayerDataSlot slot = entries.get(path);
+        if (slot == null || !slot.typeId().equals(type.id())) {
+            return Optional.empty();
+        }
+        return type.codec().parse(new Dynamic<>(NbtOps.INSTANCE, slot.value())).result();
+    }
+
+    public <T> void write(PlayerDataKey<T> key, @Nullable T value) {
+        if (!key.segment().equals(segmentId)) {
+            throw new IllegalArgumentException("Key " + key + " does not belong to segment " + segmentId);
+        }
+        if (value == null) {
+            entries.remove(key.path());
+            return;
+        }
+        PlayerDataSlot previous = entries.get(key.path());
+        long expiresAt = previous == null ? PlayerDataSlot.NEVER : previous.expiresAt();
+        entries.put(key.path(), PlayerDataSlot.from(key, value, expiresAt));
+    }
+
+    public void remove(String path) {
+        entries.remove(path);
+    }
+
+    /**
+     * Runs one step, rolling its changes back if it throws. Returns whether it succeeded.
+     */
+    boolean apply(SegmentMigrator migrator, int fromVersion) {
+        Map<String, PlayerDataSlot> snapshot = new HashMap<>(entries);
+        try {
+            migrator.migrate(this);
+            return true;
+        } catch (RuntimeException e) {
+            entries = snapshot;
+            LOGGER.error("Failed to migrate player data segment {} from version {}", segmentId, fromVersion, e);
+            return false;
+        }
+    }
+
+    Map<String, PlayerDataSlot> entries() {
+        return entries;
+    }
+}
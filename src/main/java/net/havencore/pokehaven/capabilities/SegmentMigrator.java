@@ -0,0 +1,11 @@
+package net.havencore.pokehaven.capabilities;
+
+/**
+ * Upgrades one segment of a player's data from a schema version to the next one.
+ *
+ * @see PlayerDataMigrations#register(net.minecraft.resources.ResourceLocation, int, SegmentMigrator)
+ */
+@FunctionalInterface
+public interface SegmentMigrator {
+    void migrate(SegmentMigration segment);
+}
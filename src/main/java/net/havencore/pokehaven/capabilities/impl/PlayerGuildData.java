@@ -10,7 +10,7 @@ import java.util.Optional;
 
 /**
  * Guild-specific view of the segmented player data capability. Defines keys and helpers for
- * working with guild membership, faction alignment, and leadership state.
+ * working with guild membership, faction alignment, leadership state, and the rejoin lockout after leaving.
  */
 public interface PlayerGuildData extends IPlayerData {
     ResourceLocation GUILD_SEGMENT = ResourceLocation.fromNamespaceAndPath(PokeHaven.MODID, "guild");
@@ -18,6 +18,7 @@ public interface PlayerGuildData extends IPlayerData {
     PlayerDataKey<String> GUILD_NAME = PlayerDataKey.string(GUILD_SEGMENT, "guild_name");
     PlayerDataKey<String> FACTION_NAME = PlayerDataKey.string(GUILD_SEGMENT, "faction_name");
     PlayerDataKey<Boolean> FACTION_LEADER = PlayerDataKey.bool(GUILD_SEGMENT, "is_faction_leader");
+    PlayerDataKey<Boolean> REJOIN_LOCKOUT = PlayerDataKey.bool(GUILD_SEGMENT, "rejoin_lockout");
 
     default Optional<String> getGuildName() {
         return get(GUILD_NAME);
@@ -43,6 +44,18 @@ public interface PlayerGuildData extends IPlayerData {
         set(FACTION_LEADER, factionLeader);
     }
 
+    default boolean isRejoinLockedOut() {
+        return get(REJOIN_LOCKOUT).orElse(false);
+    }
+
+    /**
+     * Blocks rejoining for the given number of ticks. Set this after {@link #clearGuildMembership()}, which clears the
+     * whole guild segment including the lockout.
+     */
+    default void startRejoinLockout(long ticks) {
+        set(REJOIN_LOCKOUT, true, ticks);
+    }
+
     default void clearGuildMembership() {
         clearSegment(GUILD_SEGMENT);
     }
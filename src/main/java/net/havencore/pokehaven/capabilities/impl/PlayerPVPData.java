@@ -7,7 +7,7 @@ import net.minecraft.resources.ResourceLocation;
 
 /**
  * PvP-focused view of the segmented player data capability. Provides toggles for combat
- * participation, stealing permissions, and a running win counter.
+ * participation, stealing permissions, a running win counter, and the cooldown between PvP toggles.
  */
 public interface PlayerPVPData extends IPlayerData {
     ResourceLocation PVP_SEGMENT = ResourceLocation.fromNamespaceAndPath(PokeHaven.MODID, "pvp");
@@ -15,6 +15,7 @@ public interface PlayerPVPData extends IPlayerData {
     PlayerDataKey<Boolean> PVP_ENABLED = PlayerDataKey.bool(PVP_SEGMENT, "enable_pvp");
     PlayerDataKey<Boolean> PVP_ALLOW_STEALING = PlayerDataKey.bool(PVP_SEGMENT, "allow_stealing");
     PlayerDataKey<Integer> PVP_BATTLES_WON = PlayerDataKey.intKey(PVP_SEGMENT, "battles_won");
+    PlayerDataKey<Boolean> PVP_TOGGLE_COOLDOWN = PlayerDataKey.bool(PVP_SEGMENT, "toggle_cooldown");
 
     default boolean isPvpEnabled() {
         return get(PVP_ENABLED).orElse(false);
@@ -40,7 +41,15 @@ public interface PlayerPVPData extends IPlayerData {
         set(PVP_BATTLES_WON, wins);
     }
 
-    default void incrementBattlesWon() {
-        setBattlesWon(getBattlesWon() + 1);
+    default int incrementBattlesWon() {
+        return addAndGet(PVP_BATTLES_WON, 1);
+    }
+
+    default boolean isPvpToggleOnCooldown() {
+        return get(PVP_TOGGLE_COOLDOWN).orElse(false);
+    }
+
+    default void startPvpToggleCooldown(long ticks) {
+        set(PVP_TOGGLE_COOLDOWN, true, ticks);
     }
 }
@@ -0,0 +1,76 @@
+package net.havencore.pokehaven.commands;
+
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.Config;
+import net.havencore.pokehaven.core.guilds.GuildSnapshot;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.havencore.pokehaven.util.WorkerThreads;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import org.slf4j.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs read-only guild commands against a {@link GuildSnapshot} on a background pool, so building large listings
+ * never costs the server a tick. The reply is sent from the server thread once ready, or a timeout message after the
+ * command's timeout, {@link Config#asyncCommandTimeoutMillis} unless it gives its own. A task that times out is
+ * interrupted so it frees its pool thread for the next command.
+ */
+public final class AsyncGuildCommands {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final ExecutorService EXECUTOR = WorkerThreads.newPool("guild commands", 2);
+
+    private AsyncGuildCommands() {
+    }
+
+    /**
+     * Schedules {@code task} with the configured timeout and returns immediately. The task must only read the snapshot
+     * it is given.
+     */
+    public static int submit(CommandSourceStack src, String description, Function<GuildSnapshot, Component> task) {
+        return submit(src, description, Config.asyncCommandTimeoutMillis, task);
+    }
+
+    /**
+     * Schedules {@code task} and returns immediately. The task must only read the snapshot it is given, and should
+     * stop early once its thread is interrupted.
+     */
+    public static int submit(CommandSourceStack src, String description, long timeoutMillis,
+                             Function<GuildSnapshot, Component> task) {
+        MinecraftServer server = src.getServer();
+        GuildSavedData data = GuildSavedData.get(server);
+        CompletableFuture<Component> result = new CompletableFuture<>();
+        Future<?> running = EXECUTOR.submit(() -> {
+            try {
+                result.complete(task.apply(data.snapshot()));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((reply, error) -> {
+                    if (error instanceof TimeoutException) {
+                        // Removes the task from the queue if it has not started, or interrupts it if it has.
+                        running.cancel(true);
+                    }
+                    server.execute(() -> {
+                        if (error == null) {
+                            src.sendSuccess(() -> reply, false);
+                        } else if (error instanceof TimeoutException) {
+                            src.sendFailure(Component.literal("Error: " + description + " timed out"));
+                        } else {
+                            LOGGER.error("Background guild command '{}' failed", description, error);
+                            src.sendFailure(Component.literal("Error: " + error.getMessage()));
+                        }
+                    });
+                });
+        return 1;
+    }
+}
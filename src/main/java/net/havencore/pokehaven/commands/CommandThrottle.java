@@ -0,0 +1,125 @@
+package net.havencore.pokehaven.commands;
+
+import com.mojang.brigadier.Command;
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.Config;
+import net.havencore.pokehaven.PokeHaven;
+import net.havencore.pokehaven.util.TokenBucket;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import org.slf4j.Logger;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-player rate limiting for guild commands. Every player gets one {@link TokenBucket} per command, sized from
+ * {@link Config#commandRateLimits}; calls made without a token are rejected before they reach the command body and
+ * counted per command. Non-player sources such as the console are never throttled. An entry that cannot size a bucket
+ * is ignored with a warning, so its command falls back to the {@code *} entry.
+ */
+@EventBusSubscriber(modid = PokeHaven.MODID)
+public final class CommandThrottle {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String DEFAULT_KEY = "*";
+
+    private record Limit(double perMinute, int burst) {
+    }
+
+    private static final Map<UUID, Map<String, TokenBucket>> BUCKETS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> THROTTLED = new ConcurrentHashMap<>();
+
+    private static volatile List<String> parsedFrom;
+    private static volatile Map<String, Limit> limits = Map.of();
+
+    private CommandThrottle() {
+    }
+
+    /**
+     * Wraps {@code command} so each player may only run it as often as the limit configured for {@code name} allows.
+     */
+    public static Command<CommandSourceStack> limit(String name, Command<CommandSourceStack> command) {
+        return context -> {
+            CommandSourceStack source = context.getSource();
+            if (source.getEntity() instanceof ServerPlayer player && !tryAcquire(player.getUUID(), name)) {
+                THROTTLED.computeIfAbsent(name, unused -> new LongAdder()).increment();
+                source.sendFailure(Component.literal("You are using this command too quickly, try again shortly."));
+                return 0;
+            }
+            return command.run(context);
+        };
+    }
+
+    /**
+     * Number of rejected calls per command since startup.
+     */
+    public static Map<String, Long> throttledCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        THROTTLED.forEach((name, count) -> counts.put(name, count.sum()));
+        return counts;
+    }
+
+    private static boolean tryAcquire(UUID player, String name) {
+        Map<String, Limit> current = currentLimits();
+        Limit limit = current.getOrDefault(name, current.get(DEFAULT_KEY));
+        if (limit == null) {
+            return true;
+        }
+        long now = System.nanoTime();
+        return BUCKETS.computeIfAbsent(player, unused -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, unused -> new TokenBucket(limit.perMinute(), limit.burst(), now))
+                .tryAcquire(now);
+    }
+
+    private static Map<String, Limit> currentLimits() {
+        List<String> configured = Config.commandRateLimits;
+        if (configured != parsedFrom) {
+            Map<String, Limit> parsed = new HashMap<>();
+            for (String entry : configured) {
+                Limit limit = parse(entry);
+                if (limit == null) {
+                    LOGGER.warn("Ignoring invalid command rate limit '{}'; the default limit applies instead", entry);
+                } else {
+                    parsed.put(entry.substring(0, entry.indexOf('=')), limit);
+                }
+            }
+            limits = Map.copyOf(parsed);
+            parsedFrom = configured;
+            // Buckets were sized for the old limits.
+            BUCKETS.clear();
+        }
+        return limits;
+    }
+
+    /**
+     * Parses {@code <command>=<uses per minute>:<burst>}, or returns null if the entry cannot size a bucket.
+     */
+    private static Limit parse(String entry) {
+        int equals = entry.indexOf('=');
+        int colon = entry.lastIndexOf(':');
+        if (equals < 0 || colon < equals) {
+            return null;
+        }
+        try {
+            Limit limit = new Limit(Double.parseDouble(entry.substring(equals + 1, colon)),
+                    Integer.parseInt(entry.substring(colon + 1)));
+            return limit.perMinute() > 0 && limit.burst() > 0 ? limit : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        BUCKETS.remove(event.getEntity().getUUID());
+    }
+}
@@ -0,0 +1,309 @@
+package net.havencore.pokehaven.commands;
+
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.PokeHaven;
+import net.havencore.pokehaven.core.guilds.GuildRoster;
+import net.havencore.pokehaven.core.guilds.GuildSnapshot;
+import net.havencore.pokehaven.core.guilds.GuildTraceRecorder;
+import net.havencore.pokehaven.core.guilds.GuildTraceReplay;
+import net.havencore.pokehaven.core.metrics.Metrics;
+import net.havencore.pokehaven.guilds.GuildRosterFiles;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.havencore.pokehaven.util.WorkerThreads;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.storage.LevelResource;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import org.slf4j.Logger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * {@code /guildadmin export|import [name]}: moves guild rosters to and from {@code pokehaven/<name>.jsonl} in the world
+ * folder (see {@link GuildRosterFiles}). File work runs on a background thread with progress messages; an import is
+ * applied to {@link GuildSavedData} on the server thread as a single batch. Only one transfer runs at a time.
+ * <p>
+ * {@code /guildadmin trace start [name]|stop|replay [name] [realtime]|cancel} records guild mutations to
+ * {@code pokehaven/<name>.guildtrace} and replays a recording against a throwaway copy in the background (see
+ * {@link GuildTraceReplay}); replays never touch the live guilds and share the transfer slot, which {@code cancel}
+ * frees early by stopping the running replay.
+ */
+@EventBusSubscriber(modid = PokeHaven.MODID)
+public final class GuildAdminCommands {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final ExecutorService EXECUTOR = WorkerThreads.newPool("guild transfer", 1);
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final String DEFAULT_NAME = "guilds";
+    private static final String DEFAULT_TRACE = "trace";
+    private static final String ROSTER_EXTENSION = ".jsonl";
+    private static final String TRACE_EXTENSION = ".guildtrace";
+    private static final AtomicBoolean BUSY = new AtomicBoolean();
+    private static final long TRACE_CLOSE_TIMEOUT_SECONDS = 10;
+    /**
+     * Guards {@link #replaying}, so a cancel never interrupts the worker after the replay has finished.
+     */
+    private static final Object REPLAY_LOCK = new Object();
+    private static Thread replaying;
+    private static volatile boolean replayCancelled;
+
+    private GuildAdminCommands() {
+    }
+
+    @SubscribeEvent
+    public static void register(RegisterCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal("guildadmin")
+                .requires(source -> source.hasPermission(3))
+                .then(Commands.literal("export")
+                        .executes(ctx -> export(ctx.getSource(), DEFAULT_NAME))
+                        .then(nameArgument().executes(ctx -> export(ctx.getSource(), StringArgumentType.getString(ctx, "name")))))
+                .then(Commands.literal("import")
+                        .executes(ctx -> importRoster(ctx.getSource(), DEFAULT_NAME))
+                        .then(nameArgument().executes(ctx -> importRoster(ctx.getSource(), StringArgumentType.getString(ctx, "name")))))
+                .then(Commands.literal("trace")
+                        .then(Commands.literal("start")
+                                .executes(ctx -> startTrace(ctx.getSource(), DEFAULT_TRACE))
+                                .then(nameArgument().executes(ctx -> startTrace(ctx.getSource(), StringArgumentType.getString(ctx, "name")))))
+                        .then(Commands.literal("stop")
+                                .executes(ctx -> stopTrace(ctx.getSource())))
+                        .then(Commands.literal("cancel")
+                                .executes(ctx -> cancelReplay(ctx.getSource())))
+                        .then(Commands.literal("replay")
+                                .executes(ctx -> replayTrace(ctx.getSource(), DEFAULT_TRACE, false))
+                                .then(nameArgument()
+                                        .executes(ctx -> replayTrace(ctx.getSource(), StringArgumentType.getString(ctx, "name"), false))
+                                        .then(Commands.argument("realtime", BoolArgumentType.bool())
+                                                .executes(ctx -> replayTrace(ctx.getSource(), StringArgumentType.getString(ctx, "name"),
+                                                        BoolArgumentType.getBool(ctx, "realtime"))))))));
+    }
+
+    /**
+     * Closes a recording left running and waits for its writer, so the file ends cleanly before the server exits.
+     */
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        GuildTraceRecorder recorder = GuildSavedData.get(event.getServer()).stopTrace();
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.closed().get(TRACE_CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            LOGGER.info("Stopped guild trace {} after {} records", recorder.file().getFileName(), recorder.records());
+        } catch (Exception e) {
+            LOGGER.error("Guild trace {} was not finished cleanly", recorder.file().getFileName(), e);
+        }
+    }
+
+    private static RequiredArgumentBuilder<CommandSourceStack, String> nameArgument() {
+        return Commands.argument("name", StringArgumentType.word());
+    }
+
+    private static int export(CommandSourceStack src, String name) {
+        Path file = resolve(src, name, ROSTER_EXTENSION);
+        if (file == null || !acquire(src)) {
+            return 0;
+        }
+        MinecraftServer server = src.getServer();
+        GuildSavedData data = GuildSavedData.get(server);
+        CompletableFuture.supplyAsync(() -> {
+            GuildSnapshot snapshot = data.snapshot();
+            int total = GuildRosterFiles.lineCount(snapshot);
+            try {
+                return GuildRosterFiles.write(snapshot, file, lines -> progress(src, "Exported", lines, total));
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }, EXECUTOR).whenComplete((lines, error) -> server.execute(() -> {
+            BUSY.set(false);
+            if (error != null) {
+                fail(src, "roster export", error);
+                return;
+            }
+            src.sendSuccess(() -> Component.literal("Exported " + lines + " roster lines to " + file.getFileName()), true);
+        }));
+        src.sendSuccess(() -> Component.literal("Exporting guild rosters to " + file.getFileName() + "..."), false);
+        return 1;
+    }
+
+    private static int importRoster(CommandSourceStack src, String name) {
+        Path file = resolve(src, name, ROSTER_EXTENSION);
+        if (file == null) {
+            return 0;
+        }
+        if (!Files.isRegularFile(file)) {
+            src.sendFailure(Component.literal("Error: No roster file named " + file.getFileName()));
+            return 0;
+        }
+        if (!acquire(src)) {
+            return 0;
+        }
+        MinecraftServer server = src.getServer();
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return GuildRosterFiles.read(file, lines -> progress(src, "Read", lines, -1));
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }, EXECUTOR).whenComplete((read, error) -> server.execute(() -> {
+            BUSY.set(false);
+            if (error != null) {
+                fail(src, "roster import", error);
+                return;
+            }
+            GuildRoster.ImportResult result = GuildSavedData.get(server).importRoster(read.roster());
+            src.sendSuccess(() -> Component.literal("Imported " + result.membersAdded() + " members and "
+                    + result.factionsAdded() + " factions from " + file.getFileName() + " ("
+                    + result.membersPresent() + " members already present; skipped " + result.membersSkipped()
+                    + " members, " + result.factionsSkipped() + " factions, " + read.malformed()
+                    + " malformed lines)"), true);
+        }));
+        src.sendSuccess(() -> Component.literal("Importing guild rosters from " + file.getFileName() + "..."), false);
+        return 1;
+    }
+
+    private static int startTrace(CommandSourceStack src, String name) {
+        Path file = resolve(src, name, TRACE_EXTENSION);
+        if (file == null) {
+            return 0;
+        }
+        MinecraftServer server = src.getServer();
+        GuildSavedData data = GuildSavedData.get(server);
+        try {
+            GuildTraceRecorder previous = data.getTrace();
+            GuildTraceRecorder recorder = data.startTrace(file);
+            if (previous != null) {
+                src.sendSuccess(() -> Component.literal("Stopped trace " + previous.file().getFileName() + " after "
+                        + previous.records() + " records"), false);
+            }
+            recorder.closed().whenComplete((unused, error) -> {
+                if (error != null) {
+                    server.execute(() -> fail(src, "trace", error));
+                }
+            });
+        } catch (Exception e) {
+            fail(src, "trace start", e);
+            return 0;
+        }
+        src.sendSuccess(() -> Component.literal("Recording guild mutations to " + file.getFileName()), true);
+        return 1;
+    }
+
+    private static int stopTrace(CommandSourceStack src) {
+        MinecraftServer server = src.getServer();
+        GuildTraceRecorder recorder = GuildSavedData.get(server).stopTrace();
+        if (recorder == null) {
+            src.sendFailure(Component.literal("Error: No guild trace is being recorded"));
+            return 0;
+        }
+        // Write failures are reported by the handler registered in startTrace.
+        recorder.closed().thenRun(() -> server.execute(() -> src.sendSuccess(() -> Component.literal("Recorded "
+                + recorder.records() + " guild mutations to " + recorder.file().getFileName()), true)));
+        return 1;
+    }
+
+    private static int cancelReplay(CommandSourceStack src) {
+        synchronized (REPLAY_LOCK) {
+            if (replaying == null) {
+                src.sendFailure(Component.literal("Error: No guild trace replay is running"));
+                return 0;
+            }
+            replayCancelled = true;
+            replaying.interrupt();
+        }
+        src.sendSuccess(() -> Component.literal("Cancelling the guild trace replay..."), false);
+        return 1;
+    }
+
+    private static int replayTrace(CommandSourceStack src, String name, boolean realTime) {
+        Path file = resolve(src, name, TRACE_EXTENSION);
+        if (file == null) {
+            return 0;
+        }
+        if (!Files.isRegularFile(file)) {
+            src.sendFailure(Component.literal("Error: No guild trace named " + file.getFileName()));
+            return 0;
+        }
+        GuildTraceRecorder recording = GuildSavedData.get(src.getServer()).getTrace();
+        if (recording != null && recording.file().equals(file)) {
+            src.sendFailure(Component.literal("Error: " + file.getFileName() + " is still being recorded"));
+            return 0;
+        }
+        if (!acquire(src)) {
+            return 0;
+        }
+        MinecraftServer server = src.getServer();
+        replayCancelled = false;
+        CompletableFuture.supplyAsync(() -> {
+            synchronized (REPLAY_LOCK) {
+                replaying = Thread.currentThread();
+            }
+            try {
+                GuildTraceReplay.Trace trace = GuildTraceReplay.read(file);
+                return GuildTraceReplay.replay(trace, realTime, GuildSavedData::saveSize, null);
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            } finally {
+                synchronized (REPLAY_LOCK) {
+                    replaying = null;
+                    // Don't leak a cancel into the next task on this worker.
+                    Thread.interrupted();
+                }
+            }
+        }, EXECUTOR).whenComplete((result, error) -> server.execute(() -> {
+            BUSY.set(false);
+            if (error != null) {
+                fail(src, replayCancelled ? "replay (cancelled)" : "replay", error);
+                return;
+            }
+            src.sendSuccess(() -> Component.literal((replayCancelled ? "Cancelled replay of " : "Replayed ")
+                    + file.getFileName() + ": " + result.describe()), false);
+            result.latencies().forEach((op, latency) -> src.sendSuccess(() -> Component.literal("  " + op + ": "
+                    + latency.count() + " calls, p50 " + Metrics.formatNanos(latency.p50()) + ", p99 "
+                    + Metrics.formatNanos(latency.p99()) + ", max " + Metrics.formatNanos(latency.max())), false));
+            result.violations().forEach(violation -> src.sendFailure(Component.literal("  " + violation)));
+        }));
+        src.sendSuccess(() -> Component.literal("Replaying " + file.getFileName()
+                + (realTime ? " in real time..." : " at full speed...")), false);
+        return 1;
+    }
+
+    private static Path resolve(CommandSourceStack src, String name, String extension) {
+        if (!FILE_NAME.matcher(name).matches()) {
+            src.sendFailure(Component.literal("Error: File names may only contain letters, digits, '_' and '-'"));
+            return null;
+        }
+        return src.getServer().getWorldPath(LevelResource.ROOT).resolve(PokeHaven.MODID).resolve(name + extension);
+    }
+
+    private static boolean acquire(CommandSourceStack src) {
+        if (BUSY.compareAndSet(false, true)) {
+            return true;
+        }
+        src.sendFailure(Component.literal("Error: Another guild import, export or replay is still running"));
+        return false;
+    }
+
+    private static void progress(CommandSourceStack src, String verb, int lines, int total) {
+        String message = verb + " " + lines + (total >= 0 ? "/" + total : "") + " roster lines";
+        src.getServer().execute(() -> src.sendSuccess(() -> Component.literal(message), false));
+    }
+
+    private static void fail(CommandSourceStack src, String operation, Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        LOGGER.error("Guild {} failed", operation, cause);
+        src.sendFailure(Component.literal("Error: Guild " + operation + " failed: " + cause.getMessage()));
+    }
+}
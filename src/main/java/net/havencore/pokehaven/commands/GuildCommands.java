@@ -1,25 +1,35 @@
 package net.havencore.pokehaven.commands;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
-import net.havencore.pokehaven.capabilities.PlayerDataAccess;
-import net.havencore.pokehaven.capabilities.impl.PlayerGuildData;
+import net.havencore.pokehaven.core.guilds.*;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionNotFoundException;
 import net.havencore.pokehaven.guilds.*;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.arguments.UuidArgument;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.neoforge.event.RegisterCommandsEvent;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
 import java.util.UUID;
-import java.util.function.Consumer;
 
 import static net.minecraft.commands.Commands.argument;
 import static net.minecraft.commands.Commands.literal;
 
 @EventBusSubscriber(modid = "pokehaven")
 public class GuildCommands {
+    private static final int MAX_SUGGESTION_DISTANCE = 2;
+    private static final int SEARCH_LIMIT = 10;
+    private static final int ONLINE_LIMIT = 20;
 
     @SubscribeEvent
     public static void onRegisterCommands(RegisterCommandsEvent event) {
@@ -27,96 +37,124 @@ public class GuildCommands {
 
         event.getDispatcher().register(
                 literal("guild")
-                        .executes(ctx -> {
+                        .executes(CommandThrottle.limit("guild", ctx -> {
                             ctx.getSource().sendSuccess(
-                                    () -> Component.literal("Guild commands: join, leave, faction"), false);
+                                    () -> Component.literal("Guild commands: join, leave, members, online, faction"), false);
                             return 1;
-                        })
+                        }))
 
                         // guild join <guildName> [uuid]
                         .then(literal("join")
                                 .then(argument("guildName", StringArgumentType.word())
-                                        .suggests((ctx, sb) -> {
-                                            for (GuildName g : GuildName.values()) {
-                                                sb.suggest(g.name().toLowerCase());
-                                            }
-                                            return sb.buildFuture();
-                                        })
-                                        .executes(ctx -> executeGuildJoin(
+                                        .suggests(GuildSuggestions.GUILDS)
+                                        .executes(CommandThrottle.limit("guild.join", ctx -> executeGuildJoin(
                                                 ctx.getSource(),
                                                 StringArgumentType.getString(ctx, "guildName"),
                                                 null
-                                        ))
+                                        )))
                                         .then(argument("uuid", UuidArgument.uuid())
-                                                .executes(ctx -> {
+                                                .executes(CommandThrottle.limit("guild.join", ctx -> {
                                                     UUID u = UuidArgument.getUuid(ctx, "uuid");
                                                     return executeGuildJoin(
                                                             ctx.getSource(),
                                                             StringArgumentType.getString(ctx, "guildName"),
                                                             u
                                                     );
-                                                })
+                                                }))
                                         )
                                 )
                         )
 
                         // guild leave [uuid]
                         .then(literal("leave")
-                                .executes(ctx -> executeGuildLeave(ctx.getSource(), null))
+                                .executes(CommandThrottle.limit("guild.leave", ctx -> executeGuildLeave(ctx.getSource(), null)))
                                 .then(argument("uuid", UuidArgument.uuid())
-                                        .executes(ctx -> executeGuildLeave(
+                                        .executes(CommandThrottle.limit("guild.leave", ctx -> executeGuildLeave(
                                                 ctx.getSource(),
                                                 UuidArgument.getUuid(ctx, "uuid")
-                                        ))
+                                        )))
                                 )
                         )
 
+                        // guild members [page]
+                        .then(literal("members")
+                                .executes(CommandThrottle.limit("guild.members", ctx -> executeMembers(ctx.getSource(), 1)))
+                                .then(argument("page", IntegerArgumentType.integer(1))
+                                        .executes(CommandThrottle.limit("guild.members", ctx -> executeMembers(
+                                                ctx.getSource(),
+                                                IntegerArgumentType.getInteger(ctx, "page")
+                                        )))
+                                )
+                        )
+
+                        // guild online
+                        .then(literal("online")
+                                .executes(CommandThrottle.limit("guild.online", ctx -> executeOnline(ctx.getSource())))
+                        )
+
                         // guild faction …
                         .then(literal("faction")
-                                .executes(ctx -> {
+                                .executes(CommandThrottle.limit("guild.faction", ctx -> {
                                     ctx.getSource().sendSuccess(
-                                            () -> Component.literal("Faction commands: create, join, leave, list"), false);
+                                            () -> Component.literal("Faction commands: create, join, leave, list, search"), false);
                                     return 1;
-                                })
+                                }))
                                 .then(literal("create")
                                         .then(argument("factionName", StringArgumentType.word())
-                                                .executes(ctx -> executeFactionCreate(
+                                                .executes(CommandThrottle.limit("guild.faction.create", ctx -> executeFactionCreate(
                                                         ctx.getSource(),
                                                         StringArgumentType.getString(ctx, "factionName")
-                                                ))
+                                                )))
                                         ))
                                 // guild faction join <factionName> [uuid]
                                 .then(literal("join")
                                         .then(argument("factionName", StringArgumentType.word())
-                                                .executes(ctx -> executeFactionJoin(
+                                                .suggests(GuildSuggestions.FACTIONS)
+                                                .executes(CommandThrottle.limit("guild.faction.join", ctx -> executeFactionJoin(
                                                         ctx.getSource(),
                                                         StringArgumentType.getString(ctx, "factionName"),
                                                         null
-                                                ))
+                                                )))
                                                 .then(argument("uuid", UuidArgument.uuid())
-                                                        .executes(ctx -> executeFactionJoin(
+                                                        .executes(CommandThrottle.limit("guild.faction.join", ctx -> executeFactionJoin(
                                                                 ctx.getSource(),
                                                                 StringArgumentType.getString(ctx, "factionName"),
                                                                 UuidArgument.getUuid(ctx, "uuid")
-                                                        ))
+                                                        )))
                                                 )
                                         )
                                 )
 
                                 // guild faction leave [uuid]
                                 .then(literal("leave")
-                                        .executes(ctx -> executeFactionLeave(ctx.getSource(), null))
+                                        .executes(CommandThrottle.limit("guild.faction.leave", ctx -> executeFactionLeave(ctx.getSource(), null)))
                                         .then(argument("uuid", UuidArgument.uuid())
-                                                .executes(ctx -> executeFactionLeave(
+                                                .executes(CommandThrottle.limit("guild.faction.leave", ctx -> executeFactionLeave(
                                                         ctx.getSource(),
                                                         UuidArgument.getUuid(ctx, "uuid")
-                                                ))
+                                                )))
                                         )
                                 )
 
-                                // guild faction list
+                                // guild faction list [page]
                                 .then(literal("list")
-                                        .executes(ctx -> executeFactionList(ctx.getSource()))
+                                        .executes(CommandThrottle.limit("guild.faction.list", ctx -> executeFactionList(ctx.getSource(), 1)))
+                                        .then(argument("page", IntegerArgumentType.integer(1))
+                                                .executes(CommandThrottle.limit("guild.faction.list", ctx -> executeFactionList(
+                                                        ctx.getSource(),
+                                                        IntegerArgumentType.getInteger(ctx, "page")
+                                                )))
+                                        )
+                                )
+
+                                // guild faction search <query>
+                                .then(literal("search")
+                                        .then(argument("query", StringArgumentType.word())
+                                                .executes(CommandThrottle.limit("guild.faction.search", ctx -> executeFactionSearch(
+                                                        ctx.getSource(),
+                                                        StringArgumentType.getString(ctx, "query")
+                                                )))
+                                        )
                                 )
                         )
         );
@@ -130,11 +168,7 @@ public class GuildCommands {
             GuildSavedData data = GuildSavedData.get(src.getServer());
             data.addPlayerToGuildSave(guildName, target);
             src.sendSuccess(() -> Component.literal("Joined guild " + guildName), true);
-            updatePlayerData(src, target, playerData -> {
-                playerData.setGuildName(guildName.name());
-                playerData.setFactionName(null);
-                playerData.setFactionLeader(false);
-            });
+            GuildMembershipReconciler.refresh(src.getServer(), target);
             return 1;
         } catch (Exception e) {
             src.sendFailure(Component.literal("Error: " + e.getMessage()));
@@ -147,9 +181,13 @@ public class GuildCommands {
             UUID target = (uuidArg != null) ? uuidArg : src.getPlayerOrException().getUUID();
             GuildSavedData data = GuildSavedData.get(src.getServer());
             GuildName current = data.getGuildOfPlayer(target);
+            if (current == null) {
+                src.sendFailure(Component.literal("Error: Not in a guild"));
+                return 0;
+            }
             data.removePlayerFromGuildSave(current, target);
             src.sendSuccess(() -> Component.literal("Left guild " + current), true);
-            updatePlayerData(src, target, PlayerGuildData::clearGuildMembership);
+            GuildMembershipReconciler.refresh(src.getServer(), target);
             return 1;
         } catch (Exception e) {
             src.sendFailure(Component.literal("Error: " + e.getMessage()));
@@ -165,10 +203,7 @@ public class GuildCommands {
             data.createFaction(guild, factionName, leader);
             data.setDirty();
             src.sendSuccess(() -> Component.literal("Created faction " + factionName), true);
-            updatePlayerData(src, leader, playerData -> {
-                playerData.setFactionName(factionName);
-                playerData.setFactionLeader(true);
-            });
+            GuildMembershipReconciler.refresh(src.getServer(), leader);
             return 1;
         } catch (Exception e) {
             src.sendFailure(Component.literal("Error: " + e.getMessage()));
@@ -182,11 +217,12 @@ public class GuildCommands {
             GuildName guild = data.getGuildOfPlayer(target);
             data.addPlayerToFactionSave(guild, factionName, target);
             src.sendSuccess(() -> Component.literal("Joined faction " + factionName), true);
-            updatePlayerData(src, target, playerData -> {
-                playerData.setFactionName(factionName);
-                playerData.setFactionLeader(false);
-            });
+            GuildMembershipReconciler.refresh(src.getServer(), target);
             return 1;
+        } catch (FactionNotFoundException e) {
+            src.sendFailure(Component.literal("Error: " + e.getMessage()
+                    + didYouMean(GuildSavedData.get(src.getServer()), factionName)));
+            return 0;
         } catch (Exception e) {
             src.sendFailure(Component.literal("Error: " + e.getMessage()));
             return 0;
@@ -201,10 +237,7 @@ public class GuildCommands {
             String faction = data.getFactionOfPlayer(target);
             data.removePlayerFromFactionSave(guild, faction, target);
             src.sendSuccess(() -> Component.literal("Left faction " + faction), true);
-            updatePlayerData(src, target, playerData -> {
-                playerData.setFactionName(null);
-                playerData.setFactionLeader(false);
-            });
+            GuildMembershipReconciler.refresh(src.getServer(), target);
             return 1;
         } catch (Exception e) {
             src.sendFailure(Component.literal("Error: " + e.getMessage()));
@@ -212,27 +245,94 @@ public class GuildCommands {
         }
     }
 
-    private static int executeFactionList(CommandSourceStack src) {
+    private static int executeFactionList(CommandSourceStack src, int page) {
+        return executeListing(src, GuildListings.Kind.FACTIONS, page);
+    }
+
+    private static int executeMembers(CommandSourceStack src, int page) {
+        return executeListing(src, GuildListings.Kind.MEMBERS, page);
+    }
+
+    private static int executeListing(CommandSourceStack src, GuildListings.Kind kind, int page) {
+        try {
+            UUID player = src.getPlayerOrException().getUUID();
+            GuildName guildName = GuildSavedData.get(src.getServer()).getGuildOfPlayer(player);
+            if (guildName == null) {
+                src.sendFailure(Component.literal("Error: You are not in a guild"));
+                return 0;
+            }
+            return GuildListings.show(src, guildName, kind, page);
+        } catch (Exception e) {
+            src.sendFailure(Component.literal("Error: " + e.getMessage()));
+            return 0;
+        }
+    }
+
+    private static int executeOnline(CommandSourceStack src) {
         try {
             UUID player = src.getPlayerOrException().getUUID();
             GuildSavedData data = GuildSavedData.get(src.getServer());
-            GuildName guildName = data.getGuildOfPlayer(player);
-            Guild guild = data.getGuilds().get(guildName);
-            String list = String.join(", ",
-                    guild.getFactions().stream().map(Faction::getName).toList());
-            src.sendSuccess(() -> Component.literal("Factions: " + list), false);
-            return 1;
+            GuildName guild = data.getGuildOfPlayer(player);
+            if (guild == null) {
+                src.sendFailure(Component.literal("Error: You are not in a guild"));
+                return 0;
+            }
+            GuildPresence presence = data.presence();
+            MutableComponent message = Component.literal("Online in " + guild + ": "
+                    + onlineNames(src.getServer(), presence.online(guild)));
+            Faction faction = data.getFactionForPlayer(player).orElse(null);
+            if (faction != null) {
+                message.append("\nOnline in faction " + faction.getName() + ": "
+                        + onlineNames(src.getServer(), presence.online(faction)));
+            }
+            src.sendSuccess(() -> message, false);
+            return presence.onlineCount(guild);
         } catch (Exception e) {
             src.sendFailure(Component.literal("Error: " + e.getMessage()));
             return 0;
         }
     }
 
-    private static void updatePlayerData(CommandSourceStack src, UUID target, Consumer<PlayerGuildData> update) {
-        var player = src.getServer().getPlayerList().getPlayer(target);
-        if (player == null) {
-            return;
+    /**
+     * The number of players in {@code online} followed by up to {@link #ONLINE_LIMIT} of their names.
+     */
+    private static String onlineNames(MinecraftServer server, Set<UUID> online) {
+        int total = online.size();
+        if (total == 0) {
+            return "0";
+        }
+        StringJoiner names = new StringJoiner(", ", " (", ")");
+        int shown = 0;
+        for (UUID id : online) {
+            if (shown == ONLINE_LIMIT) {
+                names.add("and " + (total - shown) + " more");
+                break;
+            }
+            ServerPlayer player = server.getPlayerList().getPlayer(id);
+            names.add(player == null ? id.toString() : player.getGameProfile().getName());
+            shown++;
+        }
+        return total + names.toString();
+    }
+
+    private static int executeFactionSearch(CommandSourceStack src, String query) {
+        GuildSavedData data = GuildSavedData.get(src.getServer());
+        Set<String> matches = new LinkedHashSet<>(data.findFactionNames(query, SEARCH_LIMIT));
+        for (String similar : data.findSimilarFactionNames(query, MAX_SUGGESTION_DISTANCE, SEARCH_LIMIT)) {
+            if (matches.size() >= SEARCH_LIMIT) break;
+            matches.add(similar);
         }
-        PlayerDataAccess.get(player).ifPresent(update);
+        if (matches.isEmpty()) {
+            src.sendFailure(Component.literal("No factions match " + query));
+            return 0;
+        }
+        String list = String.join(", ", matches);
+        src.sendSuccess(() -> Component.literal("Factions matching " + query + ": " + list), false);
+        return matches.size();
+    }
+
+    private static String didYouMean(GuildSavedData data, String factionName) {
+        List<String> similar = data.findSimilarFactionNames(factionName, MAX_SUGGESTION_DISTANCE, 3);
+        return similar.isEmpty() ? "" : ". Did you mean " + String.join(", ", similar) + "?";
     }
 }
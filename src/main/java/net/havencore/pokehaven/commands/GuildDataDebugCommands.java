@@ -1,24 +1,37 @@
 package net.havencore.pokehaven.commands;
 
 import com.mojang.brigadier.CommandDispatcher;
-import com.mojang.brigadier.arguments.BoolArgumentType;
-import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import com.mojang.logging.LogUtils;
 import net.havencore.pokehaven.PokeHaven;
+import net.havencore.pokehaven.capabilities.OfflinePlayerDataService;
 import net.havencore.pokehaven.capabilities.PlayerDataAccess;
 import net.havencore.pokehaven.capabilities.impl.PlayerGuildData;
+import net.havencore.pokehaven.guilds.GuildMembershipReconciler;
+import net.havencore.pokehaven.guilds.GuildSavedData;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import org.slf4j.Logger;
 
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * {@code /guilddata}: inspects and repairs the guild projection in player data. The projection is written only by
+ * {@link GuildMembershipReconciler}, so nothing here edits it directly; change membership through {@code /guild} or
+ * {@code /guildadmin} instead.
+ */
 @EventBusSubscriber(modid = PokeHaven.MODID)
 public final class GuildDataDebugCommands {
+    private static final Logger LOGGER = LogUtils.getLogger();
     private static final SimpleCommandExceptionType MISSING_CAPABILITY =
             new SimpleCommandExceptionType(Component.literal("Guild data capability is unavailable for this player."));
 
@@ -30,22 +43,13 @@ public final class GuildDataDebugCommands {
         CommandDispatcher<CommandSourceStack> dispatcher = event.getDispatcher();
         dispatcher.register(Commands.literal("guilddata")
                 .requires(source -> source.hasPermission(2))
-                .executes(GuildDataDebugCommands::show)
-                .then(Commands.literal("show").executes(GuildDataDebugCommands::show))
-                .then(Commands.literal("set")
-                        .then(Commands.literal("guild")
-                                .then(Commands.argument("name", StringArgumentType.greedyString())
-                                        .executes(GuildDataDebugCommands::setGuild)))
-                        .then(Commands.literal("faction")
-                                .then(Commands.argument("name", StringArgumentType.greedyString())
-                                        .executes(GuildDataDebugCommands::setFaction)))
-                        .then(Commands.literal("leader")
-                                .then(Commands.argument("value", BoolArgumentType.bool())
-                                        .executes(GuildDataDebugCommands::setLeader))))
-                .then(Commands.literal("clear")
-                        .executes(GuildDataDebugCommands::clearAll)
-                        .then(Commands.literal("guild").executes(GuildDataDebugCommands::clearGuild))
-                        .then(Commands.literal("faction").executes(GuildDataDebugCommands::clearFaction))));
+                .executes(CommandThrottle.limit("guilddata.show", GuildDataDebugCommands::show))
+                .then(Commands.literal("show").executes(CommandThrottle.limit("guilddata.show", GuildDataDebugCommands::show)))
+                .then(Commands.literal("reconcile")
+                        .executes(CommandThrottle.limit("guilddata.reconcile", GuildDataDebugCommands::reconcile))
+                        .then(Commands.literal("all").executes(CommandThrottle.limit("guilddata.reconcile", GuildDataDebugCommands::reconcileAll)))
+                        .then(Commands.literal("offline").executes(CommandThrottle.limit("guilddata.reconcile", GuildDataDebugCommands::reconcileOffline))))
+                .then(Commands.literal("throttle").executes(GuildDataDebugCommands::throttle)));
     }
 
     private static int show(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
@@ -54,66 +58,67 @@ public final class GuildDataDebugCommands {
         String guild = data.getGuildName().orElse("<none>");
         String faction = data.getFactionName().orElse("<none>");
         boolean leader = data.isFactionLeader();
+        String projection = data.get(PlayerGuildData.GUILD_NAME).orElse("<none>") + "/"
+                + data.get(PlayerGuildData.FACTION_NAME).orElse("<none>") + "/"
+                + data.get(PlayerGuildData.FACTION_LEADER).orElse(false);
         context.getSource().sendSuccess(
-                () -> Component.literal("Guild: " + guild + ", Faction: " + faction + ", Leader: " + leader),
+                () -> Component.literal("Guild: " + guild + ", Faction: " + faction + ", Leader: " + leader
+                        + " (client projection: " + projection + ")"),
                 false);
         return 1;
     }
 
-    private static int setGuild(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
-        ServerPlayer player = context.getSource().getPlayerOrException();
-        PlayerGuildData data = requireData(player);
-        String guild = StringArgumentType.getString(context, "name");
-        data.setGuildName(guild);
-        data.setFactionName(null);
-        data.setFactionLeader(false);
-        context.getSource().sendSuccess(() -> Component.literal("Stored guild " + guild + " for " + player.getName().getString()), false);
-        return 1;
-    }
-
-    private static int setFaction(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
-        ServerPlayer player = context.getSource().getPlayerOrException();
-        PlayerGuildData data = requireData(player);
-        String faction = StringArgumentType.getString(context, "name");
-        data.setFactionName(faction);
-        context.getSource().sendSuccess(() -> Component.literal("Stored faction " + faction + " for " + player.getName().getString()), false);
-        return 1;
-    }
-
-    private static int setLeader(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+    private static int reconcile(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
         ServerPlayer player = context.getSource().getPlayerOrException();
-        PlayerGuildData data = requireData(player);
-        boolean leader = BoolArgumentType.getBool(context, "value");
-        data.setFactionLeader(leader);
-        context.getSource().sendSuccess(() -> Component.literal("Leader flag set to " + leader + " for " + player.getName().getString()), false);
-        return 1;
+        boolean repaired = GuildMembershipReconciler.reconcile(player);
+        GuildMembershipReconciler.Report report = GuildMembershipReconciler.report();
+        context.getSource().sendSuccess(() -> Component.literal((repaired ? "Repaired" : "Verified")
+                + " guild data for " + player.getName().getString() + " (" + report.checked() + " checked, "
+                + report.repaired() + " repaired since startup)"), false);
+        return repaired ? 1 : 0;
     }
 
-    private static int clearAll(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
-        ServerPlayer player = context.getSource().getPlayerOrException();
-        PlayerGuildData data = requireData(player);
-        data.clearGuildMembership();
-        context.getSource().sendSuccess(() -> Component.literal("Cleared all guild data for " + player.getName().getString()), false);
+    private static int reconcileAll(CommandContext<CommandSourceStack> context) {
+        GuildMembershipReconciler.requestSweep();
+        GuildMembershipReconciler.Report report = GuildMembershipReconciler.report();
+        context.getSource().sendSuccess(() -> Component.literal("Scheduled a guild data sweep over online players ("
+                + report.checked() + " checked, " + report.repaired() + " repaired, " + report.queued()
+                + " queued)"), false);
         return 1;
     }
 
-    private static int clearGuild(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
-        ServerPlayer player = context.getSource().getPlayerOrException();
-        PlayerGuildData data = requireData(player);
-        data.setGuildName(null);
-        data.setFactionName(null);
-        data.setFactionLeader(false);
-        context.getSource().sendSuccess(() -> Component.literal("Cleared guild entry for " + player.getName().getString()), false);
+    /**
+     * Rewrites the guild projection stored in every player file, through {@link OfflinePlayerDataService}, so that files
+     * read by external tools or restored from backups agree with the guild data. Online players are reconciled live.
+     */
+    private static int reconcileOffline(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        MinecraftServer server = source.getServer();
+        GuildSavedData savedData = GuildSavedData.get(server);
+        OfflinePlayerDataService.get(server)
+                .editAll((playerId, data) -> GuildMembershipReconciler.project(savedData, playerId, data))
+                .whenComplete((result, error) -> server.execute(() -> {
+                    if (error != null) {
+                        LOGGER.error("Offline guild data reconcile failed", error);
+                        source.sendFailure(Component.literal("Error: Offline guild data reconcile failed: "
+                                + error.getMessage()));
+                        return;
+                    }
+                    source.sendSuccess(() -> Component.literal("Reconciled guild data of " + result.applied()
+                            + " online players and " + result.written() + " player files; " + result.deferred()
+                            + " locked files will be reconciled on login"), true);
+                }));
+        source.sendSuccess(() -> Component.literal("Reconciling guild data in stored player files..."), false);
         return 1;
     }
 
-    private static int clearFaction(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
-        ServerPlayer player = context.getSource().getPlayerOrException();
-        PlayerGuildData data = requireData(player);
-        data.setFactionName(null);
-        data.setFactionLeader(false);
-        context.getSource().sendSuccess(() -> Component.literal("Cleared faction entry for " + player.getName().getString()), false);
-        return 1;
+    private static int throttle(CommandContext<CommandSourceStack> context) {
+        Map<String, Long> counts = CommandThrottle.throttledCounts();
+        String summary = counts.isEmpty() ? "none" : counts.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(", "));
+        context.getSource().sendSuccess(() -> Component.literal("Throttled guild commands: " + summary), false);
+        return counts.size();
     }
 
     private static PlayerGuildData requireData(ServerPlayer player) throws CommandSyntaxException {
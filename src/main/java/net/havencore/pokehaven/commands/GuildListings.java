@@ -0,0 +1,140 @@
+package net.havencore.pokehaven.commands;
+
+import com.mojang.authlib.GameProfile;
+import net.havencore.pokehaven.PokeHaven;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.GuildSnapshot;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.minecraft.ChatFormatting;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.players.GameProfileCache;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Paginated guild member and faction listings. Each page is rendered, with the profile lookups for its entries, the
+ * first time it is requested for a guild version and reused by every player who asks for the same page until the
+ * guild's roster or factions change; pages nobody asks for are never rendered. Cache misses are rendered in the
+ * background through {@link AsyncGuildCommands}.
+ */
+@EventBusSubscriber(modid = PokeHaven.MODID)
+public final class GuildListings {
+    public static final int PAGE_SIZE = 10;
+
+    public enum Kind {
+        MEMBERS("Members", "/guild members"),
+        FACTIONS("Factions", "/guild faction list");
+
+        private final String title;
+        private final String command;
+
+        Kind(String title, String command) {
+            this.title = title;
+            this.command = command;
+        }
+    }
+
+    /**
+     * Pages of one listing rendered so far for a guild version, by 1-based page number.
+     */
+    private record Rendered(long version, Map<Integer, Component> pages) {
+    }
+
+    private static final Map<Kind, Map<GuildName, Rendered>> CACHE = new EnumMap<>(Kind.class);
+
+    static {
+        for (Kind kind : Kind.values()) {
+            CACHE.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    private GuildListings() {
+    }
+
+    /**
+     * Sends the requested 1-based page, rendering it first if it was not rendered since the guild last changed. Pages
+     * past the end show the last page.
+     */
+    public static int show(CommandSourceStack src, GuildName guild, Kind kind, int page) {
+        long version = GuildSavedData.get(src.getServer()).getGuilds().get(guild).getVersion();
+        Rendered rendered = CACHE.get(kind).get(guild);
+        if (rendered == null || rendered.version() != version) {
+            rendered = new Rendered(version, new ConcurrentHashMap<>());
+            CACHE.get(kind).put(guild, rendered);
+        }
+        Component cached = rendered.pages().get(page);
+        if (cached != null) {
+            src.sendSuccess(() -> cached, false);
+            return 1;
+        }
+        MinecraftServer server = src.getServer();
+        Map<Integer, Component> pages = rendered.pages();
+        return AsyncGuildCommands.submit(src, kind.title.toLowerCase(Locale.ROOT) + " listing", snapshot -> {
+            GuildSnapshot.GuildView view = snapshot.guild(guild);
+            int size = kind == Kind.MEMBERS ? view.players().size() : view.factions().size();
+            int pageCount = Math.max(1, (size + PAGE_SIZE - 1) / PAGE_SIZE);
+            int clamped = Math.max(1, Math.min(page, pageCount));
+            return pages.computeIfAbsent(clamped, unused -> render(server, view, kind, clamped, pageCount, size));
+        });
+    }
+
+    private static Component render(MinecraftServer server, GuildSnapshot.GuildView guild, Kind kind, int page,
+                                    int pageCount, int size) {
+        MutableComponent component = Component.empty().append(Component.literal(kind.title + " of " + guild.name()
+                + " (page " + page + "/" + pageCount + ", " + size + " total)").withStyle(ChatFormatting.GOLD));
+        int from = (page - 1) * PAGE_SIZE;
+        int to = Math.min(size, page * PAGE_SIZE);
+        if (kind == Kind.MEMBERS) {
+            for (UUID member : guild.players().subList(from, to)) {
+                checkCancelled();
+                component.append(Component.literal("\n" + name(server, member)));
+            }
+        } else {
+            for (GuildSnapshot.FactionView faction : guild.factions().subList(from, to)) {
+                checkCancelled();
+                component.append(Component.literal("\n")).append(Component.literal(faction.name())
+                        .withStyle(ChatFormatting.YELLOW)
+                        .append(Component.literal(" - led by " + name(server, faction.leader()) + ", "
+                                + faction.players().size() + " members").withStyle(ChatFormatting.GRAY)));
+            }
+        }
+        if (page < pageCount) {
+            component.append(Component.literal("\nNext: " + kind.command + " " + (page + 1))
+                    .withStyle(ChatFormatting.GRAY));
+        }
+        return component;
+    }
+
+    /**
+     * Stops a render that {@link AsyncGuildCommands} gave up on; the partial page is never cached.
+     */
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Listing render timed out");
+        }
+    }
+
+    private static String name(MinecraftServer server, UUID player) {
+        GameProfileCache profiles = server.getProfileCache();
+        if (profiles == null) {
+            return player.toString();
+        }
+        return profiles.get(player).map(GameProfile::getName).orElse(player.toString());
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        CACHE.values().forEach(Map::clear);
+    }
+}
@@ -0,0 +1,44 @@
+package net.havencore.pokehaven.commands;
+
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.util.NameTrie;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.minecraft.commands.CommandSourceStack;
+
+import java.util.Locale;
+
+/**
+ * Tab-completion for guild and faction name arguments, answered from prefix tries rather than by scanning the guild
+ * data.
+ */
+public final class GuildSuggestions {
+    /** Upper bound on suggestions returned for one keystroke. */
+    private static final int LIMIT = 50;
+
+    private static final NameTrie GUILD_NAMES = new NameTrie();
+
+    static {
+        for (GuildName guild : GuildName.values()) {
+            GUILD_NAMES.add(guild.name().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    public static final SuggestionProvider<CommandSourceStack> GUILDS = (context, builder) -> {
+        for (String name : GUILD_NAMES.withPrefix(builder.getRemaining(), LIMIT)) {
+            builder.suggest(name);
+        }
+        return builder.buildFuture();
+    };
+
+    public static final SuggestionProvider<CommandSourceStack> FACTIONS = (context, builder) -> {
+        GuildSavedData data = GuildSavedData.get(context.getSource().getServer());
+        for (String name : data.findFactionNames(builder.getRemaining(), LIMIT)) {
+            builder.suggest(name);
+        }
+        return builder.buildFuture();
+    };
+
+    private GuildSuggestions() {
+    }
+}
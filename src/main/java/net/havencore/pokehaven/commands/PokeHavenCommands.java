@@ -0,0 +1,129 @@
+package net.havencore.pokehaven.commands;
+
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.PokeHaven;
+import net.havencore.pokehaven.capabilities.PlayerDataAttachment;
+import net.havencore.pokehaven.capabilities.PlayerDataAttachments;
+import net.havencore.pokehaven.core.metrics.HeapSize;
+import net.havencore.pokehaven.core.metrics.Metrics;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.havencore.pokehaven.metrics.MetricsReporter;
+import net.havencore.pokehaven.util.WorkerThreads;
+import net.minecraft.ChatFormatting;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@code /pokehaven}: operator diagnostics for the mod as a whole. {@code metrics [reset]} shows the {@link Metrics}
+ * registry; {@code memory} estimates the heap held by guild data and player data attachments.
+ */
+@EventBusSubscriber(modid = PokeHaven.MODID)
+public final class PokeHavenCommands {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final ExecutorService EXECUTOR = WorkerThreads.newPool("memory estimate", 1);
+    /**
+     * Most player attachments measured per {@code /pokehaven memory}; the total is extrapolated from the sample.
+     */
+    private static final int ATTACHMENT_SAMPLE = 64;
+
+    private PokeHavenCommands() {
+    }
+
+    @SubscribeEvent
+    public static void register(RegisterCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal("pokehaven")
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("metrics")
+                        .executes(PokeHavenCommands::metrics)
+                        .then(Commands.literal("reset").executes(PokeHavenCommands::resetMetrics)))
+                .then(Commands.literal("memory")
+                        .executes(PokeHavenCommands::memory)));
+    }
+
+    private static int metrics(CommandContext<CommandSourceStack> context) {
+        MutableComponent message = Component.empty().append(Component.literal("PokeHaven metrics")
+                .withStyle(ChatFormatting.GOLD));
+        if (!Metrics.enabled()) {
+            message.append(Component.literal("\nCollection is disabled; set metricsEnabled in the config to enable it.")
+                    .withStyle(ChatFormatting.GRAY));
+        }
+        Metrics.counters().forEach((name, counter) -> message.append(line(name, String.valueOf(counter.get()))));
+        Metrics.gauges().forEach((name, gauge) -> message.append(line(name, String.valueOf(gauge.get()))));
+        Metrics.histograms().forEach((name, histogram) -> message.append(line(name, Metrics.format(histogram.summary()))));
+        context.getSource().sendSuccess(() -> message, false);
+        return 1;
+    }
+
+    private static Component line(String name, String value) {
+        return Component.literal("\n" + name + ": ").withStyle(ChatFormatting.YELLOW)
+                .append(Component.literal(value).withStyle(ChatFormatting.WHITE));
+    }
+
+    /**
+     * Estimates guild data and player attachment heap use on a worker thread. Guild figures come from element counts
+     * and the lock-free snapshot; attachments are immutable, so an evenly spaced sample of online players' attachments
+     * is collected here and measured in the background.
+     */
+    private static int memory(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        MinecraftServer server = source.getServer();
+        GuildSavedData guilds = GuildSavedData.get(server);
+        List<ServerPlayer> players = server.getPlayerList().getPlayers();
+        int online = players.size();
+        int stride = Math.max(1, online / ATTACHMENT_SAMPLE);
+        List<PlayerDataAttachment> sample = new ArrayList<>();
+        for (int i = 0; i < online && sample.size() < ATTACHMENT_SAMPLE; i += stride) {
+            sample.add(players.get(i).getData(PlayerDataAttachments.PLAYER_DATA.get()));
+        }
+
+        CompletableFuture.supplyAsync(() -> {
+            MutableComponent message = Component.empty().append(Component.literal("PokeHaven memory (estimated)")
+                    .withStyle(ChatFormatting.GOLD));
+            long guildTotal = 0;
+            for (HeapSize.Estimate estimate : guilds.estimateFootprint()) {
+                guildTotal += estimate.bytes();
+                message.append(line(estimate.name(), HeapSize.format(estimate.bytes()) + " (" + estimate.entries()
+                        + " entries)"));
+            }
+            message.append(line("guild total", HeapSize.format(guildTotal)));
+
+            long sampled = 0;
+            for (PlayerDataAttachment attachment : sample) {
+                sampled += attachment.estimatedBytes();
+            }
+            long mean = sample.isEmpty() ? 0 : sampled / sample.size();
+            message.append(line("playerdata", HeapSize.format(mean * online) + " across " + online
+                    + " online players (" + HeapSize.format(mean) + " mean over " + sample.size() + " sampled)"));
+            return message;
+        }, EXECUTOR).whenComplete((message, error) -> server.execute(() -> {
+            if (error != null) {
+                LOGGER.error("Memory estimate failed", error);
+                source.sendFailure(Component.literal("Error: Memory estimate failed: " + error.getMessage()));
+                return;
+            }
+            source.sendSuccess(() -> message, false);
+        }));
+        return 1;
+    }
+
+    private static int resetMetrics(CommandContext<CommandSourceStack> context) {
+        Metrics.reset();
+        MetricsReporter.restart();
+        context.getSource().sendSuccess(() -> Component.literal("Metrics reset"), true);
+        return 1;
+    }
+}
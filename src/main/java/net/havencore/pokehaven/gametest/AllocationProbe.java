@@ -0,0 +1,43 @@
+package net.havencore.pokehaven.gametest;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures heap allocation of the current thread with the JVM's per-thread allocated-bytes counter
+ * ({@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}). Operations are warmed up before being
+ * measured, and the result is averaged over many calls so the probe's own constant overhead rounds away.
+ */
+public final class AllocationProbe {
+    private static final int WARMUP_ROUNDS = 3;
+
+    private AllocationProbe() {
+    }
+
+    /**
+     * Whether the running JVM can count allocated bytes per thread. Tests should pass trivially when it cannot.
+     */
+    public static boolean isSupported() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()
+                && threads.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Average number of bytes allocated by one call of {@code operation}, measured over {@code iterations} calls after
+     * warming it up for the same number of calls a few times.
+     */
+    public static double bytesPerCall(int iterations, Runnable operation) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (int i = 0; i < iterations; i++) {
+                operation.run();
+            }
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        return (double) allocated / iterations;
+    }
+}
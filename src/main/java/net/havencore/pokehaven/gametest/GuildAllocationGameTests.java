@@ -0,0 +1,81 @@
+package net.havencore.pokehaven.gametest;
+
+import net.havencore.pokehaven.capabilities.PlayerDataAccess;
+import net.havencore.pokehaven.capabilities.PlayerDataCapability;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.GameType;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.UUID;
+
+/**
+ * Steady-state reads that run every tick must not allocate. Each test measures bytes per call with
+ * {@link AllocationProbe} and fails above {@code -Dpokehaven.alloc.maxBytesPerCall} (default 0). Anything below one
+ * byte per call is the probe's own overhead spread over the iterations, not an allocation by the read.
+ */
+@GameTestHolder("pokehaven")
+@PrefixGameTestTemplate(value = false)
+public class GuildAllocationGameTests {
+    private static final int ITERATIONS = 20_000;
+    private static final double MAX_BYTES_PER_CALL =
+            Double.parseDouble(System.getProperty("pokehaven.alloc.maxBytesPerCall", "0"));
+
+    /** Keeps measured results reachable so the reads cannot be optimized away. */
+    private static volatile Object sink;
+
+    @GameTest(template = "flatworld")
+    public static void guildLookupsDoNotAllocate(GameTestHelper helper) {
+        if (!AllocationProbe.isSupported()) {
+            helper.succeed();
+            return;
+        }
+        GuildSavedData data = GuildSavedData.create();
+        UUID member = new UUID(16L, 1L);
+        UUID outsider = new UUID(16L, 2L);
+        data.addPlayerToGuild(GuildName.GALACTIC, member);
+        data.createFaction(GuildName.GALACTIC, "Nebula", member);
+
+        assertAllocationFree(helper, "getGuildOfPlayer", () -> sink = data.getGuildOfPlayer(member));
+        assertAllocationFree(helper, "getGuildOfPlayer (no guild)", () -> sink = data.getGuildOfPlayer(outsider));
+        assertAllocationFree(helper, "getFactionOfPlayer", () -> sink = data.getFactionOfPlayer(member));
+        assertAllocationFree(helper, "getFactionOfPlayer (no faction)", () -> sink = data.getFactionOfPlayer(outsider));
+
+        helper.succeed();
+    }
+
+    @GameTest(template = "flatworld")
+    public static void playerDataReadsDoNotAllocate(GameTestHelper helper) {
+        if (!AllocationProbe.isSupported()) {
+            helper.succeed();
+            return;
+        }
+        Player player = helper.makeMockPlayer(GameType.SURVIVAL);
+        PlayerDataCapability data = PlayerDataAccess.data(player);
+        GuildSavedData guilds = GuildSavedData.get(helper.getLevel().getServer());
+        guilds.addPlayerToGuild(GuildName.YELLOW, player.getUUID());
+        try {
+            data.setPvpEnabled(true);
+
+            assertAllocationFree(helper, "isPvpEnabled", () -> sink = data.isPvpEnabled());
+            assertAllocationFree(helper, "isStealingAllowed (unset)", () -> sink = data.isStealingAllowed());
+            assertAllocationFree(helper, "getGuildName", () -> sink = data.getGuildName());
+            helper.assertTrue(data.getGuildName().orElseThrow().equals(GuildName.YELLOW.name()),
+                    "Guild name should be read through from the guild data");
+        } finally {
+            guilds.removePlayerFromGuild(GuildName.YELLOW, player.getUUID());
+        }
+
+        helper.succeed();
+    }
+
+    private static void assertAllocationFree(GameTestHelper helper, String read, Runnable operation) {
+        double bytes = AllocationProbe.bytesPerCall(ITERATIONS, operation);
+        helper.assertTrue(bytes < MAX_BYTES_PER_CALL + 1, read + " allocated " + String.format("%.1f", bytes)
+                + " bytes per call, budget is " + MAX_BYTES_PER_CALL);
+    }
+}
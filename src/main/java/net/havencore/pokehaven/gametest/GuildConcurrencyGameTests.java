@@ -0,0 +1,38 @@
+package net.havencore.pokehaven.gametest;
+
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+import org.slf4j.Logger;
+
+/**
+ * Concurrent use of {@link GuildSavedData} through {@link GuildStressHarness}. Thread and operation counts can be raised
+ * with {@code -Dpokehaven.stress.threads} and {@code -Dpokehaven.stress.operations} for longer soak runs.
+ */
+@GameTestHolder("pokehaven")
+@PrefixGameTestTemplate(value = false)
+public class GuildConcurrencyGameTests {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final int THREADS = Integer.getInteger("pokehaven.stress.threads", 8);
+    private static final int OPERATIONS = Integer.getInteger("pokehaven.stress.operations", 20_000);
+
+    @GameTest(template = "flatworld", batch = "guild_stress")
+    public static void concurrentMutationsPreserveInvariants(GameTestHelper helper) {
+        GuildStressHarness.Result result = GuildStressHarness.run(GuildSavedData.create(), THREADS, OPERATIONS, 45L);
+        LOGGER.info("Guild stress run with {} threads: {}", THREADS, result.describe());
+
+        if (!result.failures().isEmpty()) {
+            Throwable first = result.failures().get(0);
+            LOGGER.error("Unexpected exception during guild stress run", first);
+            helper.fail("Unexpected " + first + " during stress run: " + result.describe());
+        }
+        helper.assertTrue(result.violations().isEmpty(), "Guild data inconsistent after stress run ("
+                + result.describe() + "): " + result.violations().stream().limit(5).toList());
+
+        helper.succeed();
+    }
+}
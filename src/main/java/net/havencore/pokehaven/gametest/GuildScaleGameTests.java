@@ -0,0 +1,168 @@
+package net.havencore.pokehaven.gametest;
+
+import net.havencore.pokehaven.core.guilds.Faction;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.GuildRoster;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.nbt.CompoundTag;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Guild data at production scale: a 100k-member guild with thousands of factions, driven through membership churn and
+ * a save/reload cycle. Each test fails if an operation's 99th percentile latency or the save/load time exceeds its
+ * budget. Sizes and budgets can be overridden with system properties on the game test server, e.g.
+ * {@code -Dpokehaven.scale.members=200000 -Dpokehaven.scale.opBudgetMicros=2000}.
+ */
+@GameTestHolder("pokehaven")
+@PrefixGameTestTemplate(value = false)
+public class GuildScaleGameTests {
+    private static final int MEMBERS = Integer.getInteger("pokehaven.scale.members", 100_000);
+    private static final int FACTIONS = Integer.getInteger("pokehaven.scale.factions", 2_000);
+    private static final int CHURN_ROUNDS = Integer.getInteger("pokehaven.scale.churnRounds", 1_000);
+    private static final long OP_BUDGET_MICROS = Long.getLong("pokehaven.scale.opBudgetMicros", 5_000L);
+    private static final long SAVE_BUDGET_MILLIS = Long.getLong("pokehaven.scale.saveBudgetMillis", 5_000L);
+    private static final long LOAD_BUDGET_MILLIS = Long.getLong("pokehaven.scale.loadBudgetMillis", 5_000L);
+
+    private static final GuildName GUILD = GuildName.ROCKET;
+
+    @GameTest(template = "flatworld", batch = "guild_scale")
+    public static void membershipChurnAtScaleWithinBudget(GameTestHelper helper) {
+        GuildSavedData data = populated();
+        List<String> factionNames = data.getGuilds().get(GUILD).getFactions().stream().map(Faction::getName).toList();
+        Random random = new Random(44L);
+
+        Map<String, Samples> samples = new LinkedHashMap<>();
+        for (String operation : List.of("join", "joinFaction", "leaveFaction", "createFaction", "renameFaction",
+                "removeFaction", "leave")) {
+            samples.put(operation, new Samples(CHURN_ROUNDS));
+        }
+
+        for (int round = 0; round < CHURN_ROUNDS; round++) {
+            UUID player = new UUID(44L, round);
+            String faction = factionNames.get(random.nextInt(factionNames.size()));
+            String created = "churn_" + round;
+            String renamed = "churn_renamed_" + round;
+
+            samples.get("join").time(() -> data.addPlayerToGuild(GUILD, player));
+            samples.get("joinFaction").time(() -> data.addPlayerToFaction(GUILD, faction, player));
+            samples.get("leaveFaction").time(() -> data.removePlayerFromFaction(GUILD, faction, player));
+            samples.get("createFaction").time(() -> data.createFaction(GUILD, created, player));
+            samples.get("renameFaction").time(() -> data.renameFaction(GUILD, created, renamed));
+            samples.get("removeFaction").time(() -> data.removeFaction(GUILD, renamed));
+            samples.get("leave").time(() -> data.removePlayerFromGuild(GUILD, player));
+        }
+
+        helper.assertTrue(data.getGuilds().get(GUILD).getPlayers().size() == MEMBERS,
+                "Churn should leave the roster at its original size");
+        helper.assertTrue(data.getGuilds().get(GUILD).getFactions().size() == factionNames.size(),
+                "Churn should leave the faction count unchanged");
+        helper.assertTrue(data.getGuildOfPlayer(new UUID(44L, 0L)) == null
+                        && data.getFactionOfPlayer(new UUID(44L, 0L)) == null,
+                "Churned players should no longer be indexed");
+
+        samples.forEach((operation, recorded) -> {
+            long p99 = recorded.percentileMicros(0.99);
+            helper.assertTrue(p99 <= OP_BUDGET_MICROS, operation + " p99 of " + p99 + "us at " + MEMBERS
+                    + " members exceeds the " + OP_BUDGET_MICROS + "us budget");
+        });
+
+        helper.succeed();
+    }
+
+    @GameTest(template = "flatworld", batch = "guild_scale")
+    public static void saveAndReloadAtScaleWithinBudget(GameTestHelper helper) {
+        GuildSavedData data = populated();
+        var registries = helper.getLevel().registryAccess();
+
+        long saveStart = System.nanoTime();
+        CompoundTag tag = data.save(new CompoundTag(), registries);
+        long saveMillis = (System.nanoTime() - saveStart) / 1_000_000;
+
+        long loadStart = System.nanoTime();
+        GuildSavedData reloaded = GuildSavedData.load(tag, registries);
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+
+        for (GuildName guild : GuildName.values()) {
+            helper.assertTrue(reloaded.getGuilds().get(guild).getPlayers().size()
+                            == data.getGuilds().get(guild).getPlayers().size(),
+                    "Reloaded roster size mismatch for " + guild);
+            helper.assertTrue(reloaded.getGuilds().get(guild).getFactions().size()
+                            == data.getGuilds().get(guild).getFactions().size(),
+                    "Reloaded faction count mismatch for " + guild);
+        }
+        Random random = new Random(45L);
+        for (int i = 0; i < 1_000; i++) {
+            UUID player = new UUID(43L, random.nextInt(MEMBERS));
+            helper.assertTrue(reloaded.getGuildOfPlayer(player) == data.getGuildOfPlayer(player),
+                    "Reloaded guild mismatch for " + player);
+            helper.assertTrue(Objects.equals(reloaded.getFactionOfPlayer(player), data.getFactionOfPlayer(player)),
+                    "Reloaded faction mismatch for " + player);
+        }
+
+        helper.assertTrue(saveMillis <= SAVE_BUDGET_MILLIS, "Saving " + MEMBERS + " members took " + saveMillis
+                + "ms, over the " + SAVE_BUDGET_MILLIS + "ms budget");
+        helper.assertTrue(loadMillis <= LOAD_BUDGET_MILLIS, "Loading " + MEMBERS + " members took " + loadMillis
+                + "ms, over the " + LOAD_BUDGET_MILLIS + "ms budget");
+
+        helper.succeed();
+    }
+
+    /**
+     * {@link #MEMBERS} players in one guild, the first ones grouped into {@link #FACTIONS} equally sized factions.
+     */
+    private static GuildSavedData populated() {
+        Map<UUID, GuildName> members = new LinkedHashMap<>();
+        List<UUID> players = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            UUID player = new UUID(43L, i);
+            members.put(player, GUILD);
+            players.add(player);
+        }
+        int factionSize = Math.max(1, Math.min(20, MEMBERS / Math.max(1, FACTIONS)));
+        List<GuildRoster.FactionEntry> factions = new ArrayList<>();
+        for (int i = 0; i < FACTIONS && (i + 1) * factionSize <= MEMBERS; i++) {
+            List<UUID> factionPlayers = players.subList(i * factionSize, (i + 1) * factionSize);
+            factions.add(new GuildRoster.FactionEntry(GUILD, "scale_" + i, factionPlayers.get(0), factionPlayers));
+        }
+        GuildSavedData data = GuildSavedData.create();
+        data.importRoster(new GuildRoster(members, factions));
+        return data;
+    }
+
+    private static final class Samples {
+        private final long[] nanos;
+        private int count;
+
+        Samples(int capacity) {
+            this.nanos = new long[capacity];
+        }
+
+        void time(Runnable operation) {
+            long start = System.nanoTime();
+            operation.run();
+            nanos[count++] = System.nanoTime() - start;
+        }
+
+        long percentileMicros(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            int index = Math.min(count - 1, (int) Math.ceil(count * quantile) - 1);
+            return sorted[Math.max(0, index)] / 1_000;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package net.havencore.pokehaven.gametest;
+
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.GuildRoster;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionLeadershipException;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionMembershipException;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionNamingException;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionNotFoundException;
+import net.havencore.pokehaven.core.guilds.exceptions.GuildMembershipException;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hammers one {@link GuildSavedData} with randomized mutations from several threads at once, then checks its indexes
+ * with {@link GuildSavedData#findInvariantViolations()}. The player and faction name pools are kept small so threads
+ * constantly collide on the same players and factions. Rejections by the guild rules (the guild exception types) are
+ * expected and counted; any other exception is a failure.
+ */
+public final class GuildStressHarness {
+    private static final GuildName[] GUILDS = {GuildName.ROCKET, GuildName.MAGMA, GuildName.AQUA};
+    private static final int PLAYERS = 512;
+    private static final int FACTION_NAMES = 32;
+    private static final int MAX_FAILURES = 20;
+
+    private GuildStressHarness() {
+    }
+
+    public record Result(long operations, long rejected, long elapsedNanos, List<Throwable> failures,
+                         List<String> violations) {
+        public double operationsPerSecond() {
+            return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+        }
+
+        public boolean passed() {
+            return failures.isEmpty() && violations.isEmpty();
+        }
+
+        public String describe() {
+            return String.format("%d operations (%d rejected) in %.1fms, %.0f ops/s, %d failures, %d violations",
+                    operations, rejected, elapsedNanos / 1e6, operationsPerSecond(), failures.size(), violations.size());
+        }
+    }
+
+    public static Result run(GuildSavedData data, int threads, int operationsPerThread, long seed) {
+        AtomicLong rejected = new AtomicLong();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(seed + t);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < operationsPerThread; i++) {
+                    try {
+                        mutate(data, random);
+                    } catch (GuildMembershipException | FactionMembershipException | FactionLeadershipException
+                             | FactionNamingException | FactionNotFoundException e) {
+                        rejected.incrementAndGet();
+                    } catch (Throwable e) {
+                        if (failures.size() < MAX_FAILURES) {
+                            failures.add(e);
+                        }
+                    }
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
+                executor.shutdownNow();
+                failures.add(new IllegalStateException("Stress run did not finish, possible deadlock"));
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            failures.add(e);
+        }
+        long elapsed = System.nanoTime() - begin;
+        return new Result((long) threads * operationsPerThread, rejected.get(), elapsed, List.copyOf(failures),
+                data.findInvariantViolations());
+    }
+
+    private static void mutate(GuildSavedData data, Random random) {
+        UUID player = new UUID(46L, random.nextInt(PLAYERS));
+        GuildName current = data.getGuildOfPlayer(player);
+        GuildName guild = current != null && random.nextInt(4) > 0 ? current : GUILDS[random.nextInt(GUILDS.length)];
+        String faction = factionName(random);
+        switch (random.nextInt(9)) {
+            case 0 -> data.addPlayerToGuild(guild, player);
+            case 1 -> data.removePlayerFromGuild(guild, player);
+            case 2 -> data.createFaction(guild, faction, player);
+            case 3 -> data.removeFaction(guild, faction);
+            case 4 -> data.addPlayerToFaction(guild, faction, player);
+            case 5 -> data.removePlayerFromFaction(guild, faction, player);
+            case 6 -> data.changeFactionLeader(guild, faction, player);
+            case 7 -> data.renameFaction(guild, faction, factionName(random));
+            default -> {
+                Map<UUID, GuildName> members = new LinkedHashMap<>();
+                List<UUID> batch = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    UUID member = new UUID(46L, random.nextInt(PLAYERS));
+                    members.put(member, guild);
+                    batch.add(member);
+                }
+                data.importRoster(new GuildRoster(members, List.of(
+                        new GuildRoster.FactionEntry(guild, faction, batch.get(0), batch))));
+            }
+        }
+    }
+
+    private static String factionName(Random random) {
+        return "stress_" + random.nextInt(FACTION_NAMES) + (random.nextBoolean() ? "" : "_renamed");
+    }
+}
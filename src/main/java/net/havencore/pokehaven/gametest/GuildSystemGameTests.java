@@ -1,20 +1,23 @@
 package net.havencore.pokehaven.gametest;
 
-import net.havencore.pokehaven.guilds.Faction;
-import net.havencore.pokehaven.guilds.Guild;
-import net.havencore.pokehaven.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.Faction;
+import net.havencore.pokehaven.core.guilds.Guild;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.GuildRoster;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionLeadershipException;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionMembershipException;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionNamingException;
+import net.havencore.pokehaven.core.guilds.exceptions.FactionNotFoundException;
+import net.havencore.pokehaven.core.guilds.exceptions.GuildMembershipException;
+import net.havencore.pokehaven.core.metrics.HeapSize;
 import net.havencore.pokehaven.guilds.GuildSavedData;
-import net.havencore.pokehaven.guilds.exceptions.FactionLeadershipException;
-import net.havencore.pokehaven.guilds.exceptions.FactionMembershipException;
-import net.havencore.pokehaven.guilds.exceptions.FactionNamingException;
-import net.havencore.pokehaven.guilds.exceptions.FactionNotFoundException;
-import net.havencore.pokehaven.guilds.exceptions.GuildMembershipException;
 import net.minecraft.gametest.framework.GameTest;
 import net.minecraft.gametest.framework.GameTestHelper;
 import net.neoforged.neoforge.gametest.GameTestHolder;
 import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -333,4 +336,187 @@ public class GuildSystemGameTests {
 
         helper.succeed();
     }
+
+    @GameTest(template = "flatworld")
+    public static void factionNamePrefixIndexTracksChanges(GameTestHelper helper) {
+        GuildSavedData data = GuildSavedData.create();
+        UUID first = new UUID(11L, 1L);
+        UUID second = new UUID(11L, 2L);
+        UUID third = new UUID(11L, 3L);
+        data.addPlayerToGuild(GuildName.PLASMA, first);
+        data.addPlayerToGuild(GuildName.PLASMA, second);
+        data.addPlayerToGuild(GuildName.FLARE, third);
+        data.createFaction(GuildName.PLASMA, "Shadow", first);
+        data.createFaction(GuildName.PLASMA, "Shade", second);
+        data.createFaction(GuildName.FLARE, "Sunfire", third);
+
+        helper.assertTrue(data.findFactionNames("SH", 10).equals(List.of("Shade", "Shadow")),
+                "Prefix lookup should ignore case and span guilds in alphabetical order");
+        helper.assertTrue(data.findFactionNames("s", 2).size() == 2, "Prefix lookup should honour the limit");
+
+        data.renameFaction(GuildName.PLASMA, "Shade", "Umbra");
+        helper.assertTrue(data.findFactionNames("sh", 10).equals(List.of("Shadow")),
+                "Renamed faction should leave its old prefix");
+        helper.assertTrue(data.findFactionNames("um", 10).equals(List.of("Umbra")),
+                "Renamed faction should be found by its new prefix");
+
+        data.removeFaction(GuildName.FLARE, "Sunfire");
+        helper.assertTrue(data.findFactionNames("su", 10).isEmpty(), "Removed faction should not be suggested");
+
+        helper.succeed();
+    }
+
+    @GameTest(template = "flatworld")
+    public static void similarFactionNamesWithinEditDistance(GameTestHelper helper) {
+        GuildSavedData data = GuildSavedData.create();
+        List<String> names = List.of("Crimson", "Crimsin", "Cobalt", "Obsidian");
+        for (int i = 0; i < names.size(); i++) {
+            UUID leader = new UUID(12L, i);
+            data.addPlayerToGuild(GuildName.SKULL, leader);
+            data.createFaction(GuildName.SKULL, names.get(i), leader);
+        }
+
+        List<String> similar = data.findSimilarFactionNames("crimsen", 2, 5);
+        helper.assertTrue(similar.size() == 2 && similar.containsAll(List.of("Crimson", "Crimsin")),
+                "Both one-edit neighbours should be suggested, got " + similar);
+        helper.assertTrue(data.findSimilarFactionNames("OBSIDAN", 1, 5).equals(List.of("Obsidian")),
+                "Lookup should ignore case");
+        helper.assertTrue(data.findSimilarFactionNames("zzzzzz", 2, 5).isEmpty(),
+                "Unrelated queries should produce no suggestions");
+
+        data.renameFaction(GuildName.SKULL, "Cobalt", "Azure");
+        helper.assertTrue(data.findSimilarFactionNames("cobalr", 2, 5).isEmpty(),
+                "Renamed faction should no longer match its old name");
+        helper.assertTrue(data.findSimilarFactionNames("azur", 2, 5).equals(List.of("Azure")),
+                "Renamed faction should match its new name");
+
+        helper.succeed();
+    }
+
+    @GameTest(template = "flatworld")
+    public static void rosterImportAppliesBatchAndSkipsConflicts(GameTestHelper helper) {
+        GuildSavedData data = GuildSavedData.create();
+        UUID existing = new UUID(13L, 0L);
+        data.addPlayerToGuild(GuildName.STAR, existing);
+        data.createFaction(GuildName.STAR, "Nova", existing);
+
+        Map<UUID, GuildName> members = new LinkedHashMap<>();
+        List<UUID> imported = IntStream.range(1, 5001).mapToObj(i -> new UUID(13L, i)).toList();
+        imported.forEach(p -> members.put(p, GuildName.YELLOW));
+        members.put(existing, GuildName.YELLOW);
+
+        List<GuildRoster.FactionEntry> factions = List.of(
+                new GuildRoster.FactionEntry(GuildName.YELLOW, "Volt", imported.get(0), imported.subList(0, 100)),
+                new GuildRoster.FactionEntry(GuildName.YELLOW, "nova", imported.get(200), List.of(imported.get(200))),
+                new GuildRoster.FactionEntry(GuildName.YELLOW, "Spark", imported.get(1), List.of(imported.get(1))));
+
+        GuildRoster.ImportResult result = data.importRoster(new GuildRoster(members, factions));
+
+        helper.assertTrue(result.membersAdded() == imported.size(), "Every new player should be imported");
+        helper.assertTrue(result.membersSkipped() == 1 && result.membersPresent() == 0,
+                "A player in another guild should be skipped");
+        helper.assertTrue(result.factionsAdded() == 1 && result.factionsSkipped() == 2,
+                "Factions with taken names or already-assigned members should be skipped");
+        helper.assertTrue(data.getGuildOfPlayer(existing) == GuildName.STAR, "Existing membership must be kept");
+        helper.assertTrue(data.getGuilds().get(GuildName.YELLOW).getPlayers().size() == imported.size(),
+                "Imported roster size mismatch");
+        helper.assertTrue("volt".equals(data.getFactionOfPlayer(imported.get(99))), "Faction members should be indexed");
+        helper.assertTrue(data.findFactionNames("vo", 5).equals(List.of("Volt")), "Imported faction should be suggested");
+
+        helper.succeed();
+    }
+
+    @GameTest(template = "flatworld")
+    public static void factionJoinRejectsSecondFaction(GameTestHelper helper) {
+        GuildSavedData data = GuildSavedData.create();
+        UUID first = new UUID(14L, 1L);
+        UUID second = new UUID(14L, 2L);
+        UUID member = new UUID(14L, 3L);
+        data.addPlayerToGuild(GuildName.PLASMA, first);
+        data.addPlayerToGuild(GuildName.PLASMA, second);
+        data.addPlayerToGuild(GuildName.PLASMA, member);
+        data.createFaction(GuildName.PLASMA, "Ion", first);
+        data.createFaction(GuildName.PLASMA, "Arc", second);
+        data.addPlayerToFaction(GuildName.PLASMA, "Ion", member);
+
+        boolean thrown = false;
+        try {
+            data.addPlayerToFaction(GuildName.PLASMA, "Arc", member);
+        } catch (FactionMembershipException e) {
+            thrown = true;
+        }
+        helper.assertTrue(thrown, "Joining a second faction should throw a FactionMembershipException");
+
+        thrown = false;
+        try {
+            data.createFaction(GuildName.PLASMA, "Bolt", member);
+        } catch (FactionMembershipException e) {
+            thrown = true;
+        }
+        helper.assertTrue(thrown, "Founding a faction while in another should throw a FactionMembershipException");
+        helper.assertTrue("ion".equals(data.getFactionOfPlayer(member)), "Member should stay in the first faction");
+        helper.assertTrue(data.findInvariantViolations().isEmpty(), "Rejected joins must leave the indexes consistent");
+
+        helper.succeed();
+    }
+
+    @GameTest(template = "flatworld")
+    public static void leavingGuildLeavesFaction(GameTestHelper helper) {
+        GuildSavedData data = GuildSavedData.create();
+        UUID leader = new UUID(15L, 1L);
+        UUID member = new UUID(15L, 2L);
+        data.addPlayerToGuild(GuildName.FLARE, leader);
+        data.addPlayerToGuild(GuildName.FLARE, member);
+        data.createFaction(GuildName.FLARE, "Ember", leader);
+        data.addPlayerToFaction(GuildName.FLARE, "Ember", member);
+
+        data.removePlayerFromGuild(GuildName.FLARE, member);
+        helper.assertTrue(data.getFactionOfPlayer(member) == null, "Leaving the guild should also leave the faction");
+        helper.assertTrue(!data.getGuilds().get(GuildName.FLARE).getFactionByName("Ember").orElseThrow()
+                .getPlayers().contains(member), "Faction roster should drop the departed member");
+
+        boolean thrown = false;
+        try {
+            data.removePlayerFromGuild(GuildName.FLARE, leader);
+        } catch (FactionLeadershipException e) {
+            thrown = true;
+        }
+        helper.assertTrue(thrown, "A faction leader should not be able to leave the guild");
+        helper.assertTrue(data.getGuildOfPlayer(leader) == GuildName.FLARE, "Leader should remain in the guild");
+        helper.assertTrue(data.findInvariantViolations().isEmpty(), "Guild and faction indexes should agree");
+
+        helper.succeed();
+    }
+
+    @GameTest(template = "flatworld")
+    public static void footprintEstimateTracksGuildData(GameTestHelper helper) {
+        GuildSavedData data = GuildSavedData.create();
+        Map<String, Long> empty = footprint(data);
+
+        UUID leader = new UUID(16L, 0L);
+        for (int i = 0; i < 1000; i++) {
+            data.addPlayerToGuild(GuildName.AQUA, new UUID(16L, i));
+        }
+        data.createFaction(GuildName.AQUA, "Tide", leader);
+        Map<String, Long> populated = footprint(data);
+        helper.assertTrue(populated.get("guild.aqua.roster") - empty.get("guild.aqua.roster") >= 1000 * 32,
+                "Roster estimate should include every member's UUID");
+        helper.assertTrue(populated.get("index.playerGuild") > empty.get("index.playerGuild"),
+                "Guild index estimate should grow with its entries");
+        helper.assertTrue(populated.get("index.factionPrefix") > 0, "Prefix index should count its nodes");
+
+        data.renameFaction(GuildName.AQUA, "Tide", "Current");
+        data.removeFaction(GuildName.AQUA, "Current");
+        Map<String, Long> cleared = footprint(data);
+        helper.assertTrue(cleared.get("index.factionPrefix") == 0 && cleared.get("index.factionGrams")
+                        .equals(empty.get("index.factionGrams")),
+                "Name index estimates should return to empty once the faction is gone");
+
+        helper.succeed();
+    }
+
+    private static Map<String, Long> footprint(GuildSavedData data) {
+        return data.estimateFootprint().stream()
+                .collect(Collectors.toMap(HeapSize.Estimate::name, HeapSize.Estimate::bytes));
+    }
 }
@@ -0,0 +1,100 @@
+package net.havencore.pokehaven.gametest;
+
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.GuildRoster;
+import net.havencore.pokehaven.core.guilds.GuildSnapshot;
+import net.havencore.pokehaven.core.guilds.GuildStore;
+import net.havencore.pokehaven.core.guilds.GuildTraceRecorder;
+import net.havencore.pokehaven.core.guilds.GuildTraceReplay;
+import net.havencore.pokehaven.guilds.GuildSavedData;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recording and replaying guild traces: a trace taken while {@link GuildStressHarness} mutates from several threads
+ * must replay onto fresh data without rejections and end in the same guilds and factions.
+ */
+@GameTestHolder("pokehaven")
+@PrefixGameTestTemplate(value = false)
+public class GuildTraceGameTests {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    @GameTest(template = "flatworld")
+    public static void replayedTraceReproducesGuilds(GameTestHelper helper) {
+        GuildSavedData data = GuildSavedData.create();
+        Map<UUID, GuildName> members = new LinkedHashMap<>();
+        for (int i = 0; i < 64; i++) {
+            members.put(new UUID(47L, i), GuildName.MAGMA);
+        }
+        data.importRoster(new GuildRoster(members, List.of(new GuildRoster.FactionEntry(GuildName.MAGMA,
+                "trace_initial", new UUID(47L, 0), List.of(new UUID(47L, 0), new UUID(47L, 1))))));
+
+        Path file = null;
+        try {
+            file = Files.createTempFile("pokehaven", ".guildtrace");
+            data.startTrace(file);
+            GuildStressHarness.Result stress = GuildStressHarness.run(data, 4, 2_000, 47L);
+            GuildTraceRecorder recorder = data.stopTrace();
+            recorder.closed().join();
+            helper.assertTrue(stress.passed(), "Stress run failed while tracing: " + stress.describe());
+            helper.assertTrue(recorder.records() > 0, "Trace should contain the successful mutations");
+
+            GuildTraceReplay.Trace trace = GuildTraceReplay.read(file);
+            helper.assertTrue(trace.calls().size() == recorder.records(),
+                    "Read " + trace.calls().size() + " calls but recorded " + recorder.records());
+
+            AtomicReference<GuildStore> replayed = new AtomicReference<>();
+            GuildTraceReplay.Result result = GuildTraceReplay.replay(trace, false, GuildSavedData::saveSize,
+                    replayed::set);
+            LOGGER.info("Guild trace replay: {}", result.describe());
+
+            helper.assertTrue(result.rejected() == 0, "Replay rejected recorded calls: " + result.describe());
+            helper.assertTrue(result.violations().isEmpty(), "Replayed data inconsistent: " + result.violations());
+            GuildSnapshot expected = data.snapshot();
+            GuildSnapshot actual = replayed.get().snapshot();
+            for (GuildName guild : GuildName.values()) {
+                helper.assertTrue(new HashSet<>(actual.guild(guild).players())
+                                .equals(new HashSet<>(expected.guild(guild).players())),
+                        "Replayed roster differs for " + guild);
+                helper.assertTrue(factions(actual.guild(guild)).equals(factions(expected.guild(guild))),
+                        "Replayed factions differ for " + guild);
+            }
+        } catch (IOException e) {
+            helper.fail("Guild trace I/O failed: " + e);
+        } finally {
+            data.stopTrace();
+            if (file != null) {
+                file.toFile().delete();
+            }
+        }
+
+        helper.succeed();
+    }
+
+    private record FactionState(UUID leader, Set<UUID> players) {
+    }
+
+    private static Map<String, FactionState> factions(GuildSnapshot.GuildView guild) {
+        Map<String, FactionState> factions = new HashMap<>();
+        for (GuildSnapshot.FactionView faction : guild.factions()) {
+            factions.put(faction.name(), new FactionState(faction.leader(), new HashSet<>(faction.players())));
+        }
+        return factions;
+    }
+}
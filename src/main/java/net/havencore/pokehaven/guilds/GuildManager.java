@@ -1,5 +1,6 @@
 package net.havencore.pokehaven.guilds;
 
+import net.havencore.pokehaven.core.guilds.GuildConstants;
 import net.minecraft.gametest.framework.GameTest;
 import net.minecraft.gametest.framework.GameTestHelper;
 import org.jetbrains.annotations.NotNull;
@@ -0,0 +1,193 @@
+package net.havencore.pokehaven.guilds;
+
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.Config;
+import net.havencore.pokehaven.PokeHaven;
+import net.havencore.pokehaven.capabilities.PlayerDataAccess;
+import net.havencore.pokehaven.capabilities.impl.PlayerGuildData;
+import net.havencore.pokehaven.core.guilds.Faction;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.GuildStore;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains the client-visible projection of guild membership stored in each player's {@link PlayerGuildData}
+ * segment. {@link GuildSavedData} is the only place membership is written; server-side reads go straight to it, so
+ * this class is the only writer of the projection. Players are checked on the tick after they log in, and online
+ * players on the tick after the guild data reports a change to their membership (see
+ * {@link GuildStore#setMembershipListener}), so a mutation re-checks only the players it touched. A periodic sweep over
+ * all online players remains as a safety net. Every tick spends at most {@link Config#guildReconcileBudgetMicros} on
+ * this; a sweep that does not fit resumes from where it stopped on the next tick. Offline players are not swept: their
+ * projection is refreshed when they next log in, or in their stored file by {@code /guilddata reconcile offline}.
+ */
+@EventBusSubscriber(modid = PokeHaven.MODID)
+public final class GuildMembershipReconciler {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    /**
+     * Players who logged in or whose membership changed, checked before the sweep.
+     */
+    private static final Queue<UUID> PENDING = new ConcurrentLinkedQueue<>();
+    private static final ArrayDeque<UUID> SWEEP = new ArrayDeque<>();
+    private static final LongAdder CHECKED = new LongAdder();
+    private static final LongAdder REPAIRED = new LongAdder();
+
+    private static long nextSweepTick;
+    private static int sweepChecked;
+    private static int sweepRepaired;
+    private static int sweepTicks;
+
+    private GuildMembershipReconciler() {
+    }
+
+    public record Report(long checked, long repaired, int queued) {
+    }
+
+    public static Report report() {
+        return new Report(CHECKED.sum(), REPAIRED.sum(), PENDING.size() + SWEEP.size());
+    }
+
+    /**
+     * Starts a sweep over all online players on the next tick, unless one is already running.
+     */
+    public static void requestSweep() {
+        nextSweepTick = 0;
+    }
+
+    /**
+     * Refreshes the player's projection right away if they are online, so the client sees a command's result on the
+     * same tick. Offline players are refreshed on login.
+     */
+    public static void refresh(MinecraftServer server, UUID playerId) {
+        ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+        if (player != null) {
+            reconcile(player);
+        }
+    }
+
+    /**
+     * Compares the player's stored membership against the saved data and overwrites whatever differs.
+     * Must be called on the server thread. Returns whether anything was repaired.
+     */
+    public static boolean reconcile(ServerPlayer player) {
+        boolean repaired = project(GuildSavedData.get(player.server), player.getUUID(), PlayerDataAccess.guild(player));
+        CHECKED.increment();
+        if (repaired) {
+            REPAIRED.increment();
+        }
+        return repaired;
+    }
+
+    /**
+     * Overwrites whatever differs between {@code data} and the membership of {@code playerId} in the saved data. Also
+     * used for the stored data of offline players; safe to call from any thread for data not attached to a live
+     * player. Returns whether anything was repaired.
+     */
+    public static boolean project(GuildSavedData savedData, UUID playerId, PlayerGuildData data) {
+        GuildName guild = savedData.getGuildOfPlayer(playerId);
+        Faction faction = guild == null ? null : savedData.getFactionForPlayer(playerId).orElse(null);
+        String expectedGuild = guild == null ? null : guild.name();
+        String expectedFaction = faction == null ? null : faction.getName();
+        boolean expectedLeader = faction != null && faction.getLeader().equals(playerId);
+
+        boolean repaired = !Objects.equals(data.get(PlayerGuildData.GUILD_NAME).orElse(null), expectedGuild)
+                || !Objects.equals(data.get(PlayerGuildData.FACTION_NAME).orElse(null), expectedFaction)
+                || data.get(PlayerGuildData.FACTION_LEADER).orElse(false) != expectedLeader;
+        if (repaired) {
+            // One write, so the client receives a single sync however many fields were stale.
+            data.setAll(PlayerGuildData.GUILD_NAME.value(expectedGuild),
+                    PlayerGuildData.FACTION_NAME.value(expectedFaction),
+                    PlayerGuildData.FACTION_LEADER.value(expectedLeader));
+            LOGGER.debug("Repaired guild membership of {}: guild={}, faction={}, leader={}",
+                    playerId, expectedGuild, expectedFaction, expectedLeader);
+        }
+        return repaired;
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            PENDING.add(player.getUUID());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        GuildSavedData.get(event.getServer()).store().setMembershipListener(PENDING::add);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        MinecraftServer server = event.getServer();
+        long tick = server.getTickCount();
+        if (SWEEP.isEmpty() && tick >= nextSweepTick) {
+            for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+                SWEEP.add(player.getUUID());
+            }
+            nextSweepTick = tick + Config.guildReconcileIntervalTicks;
+            sweepChecked = 0;
+            sweepRepaired = 0;
+            sweepTicks = 0;
+        }
+        if (PENDING.isEmpty() && SWEEP.isEmpty()) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(Config.guildReconcileBudgetMicros);
+        UUID playerId;
+        while ((playerId = PENDING.poll()) != null) {
+            ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+            if (player != null) {
+                reconcile(player);
+            }
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+        }
+
+        if (SWEEP.isEmpty()) {
+            return;
+        }
+        sweepTicks++;
+        while ((playerId = SWEEP.poll()) != null) {
+            ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+            if (player != null) {
+                sweepChecked++;
+                if (reconcile(player)) {
+                    sweepRepaired++;
+                }
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        if (SWEEP.isEmpty() && sweepRepaired > 0) {
+            // Changes are projected as they happen, so anything the sweep repairs is drift.
+            LOGGER.info("Guild membership sweep checked {} players over {} ticks and repaired {}",
+                    sweepChecked, sweepTicks, sweepRepaired);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        PENDING.clear();
+        SWEEP.clear();
+        nextSweepTick = 0;
+    }
+}
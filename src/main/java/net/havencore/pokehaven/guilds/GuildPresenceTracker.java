@@ -0,0 +1,39 @@
+package net.havencore.pokehaven.guilds;
+
+import net.havencore.pokehaven.PokeHaven;
+import net.havencore.pokehaven.core.guilds.GuildPresence;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+
+/**
+ * Reports logins and logouts to the world's {@link GuildPresence}. Membership changes need no handling here: the
+ * guild data updates the index itself. Respawns re-report the player, which is a no-op unless a logout was missed.
+ */
+@EventBusSubscriber(modid = PokeHaven.MODID)
+public final class GuildPresenceTracker {
+    private GuildPresenceTracker() {
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            GuildSavedData.get(player.server).presence().online(player.getUUID());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            GuildSavedData.get(player.server).presence().online(player.getUUID());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            GuildSavedData.get(player.server).presence().offline(player.getUUID());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package net.havencore.pokehaven.guilds;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.GuildRoster;
+import net.havencore.pokehaven.core.guilds.GuildSnapshot;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+/**
+ * Line-oriented JSON (JSONL) format for moving guild rosters between worlds. Each line is one object:
+ * <pre>{@code
+ * {"guild":"ROCKET","player":"<uuid>"}
+ * {"guild":"ROCKET","faction":"Shadow","leader":"<uuid>","players":["<uuid>", ...]}
+ * }</pre>
+ * Member lines come first so a file can be imported in a single pass. Files are streamed line by line and progress is
+ * reported every {@link #CHUNK_SIZE} lines; none of this touches live guild data, so it can run off the server thread.
+ */
+public final class GuildRosterFiles {
+    public static final int CHUNK_SIZE = 10_000;
+
+    private static final Gson GSON = new Gson();
+
+    private GuildRosterFiles() {
+    }
+
+    /**
+     * Result of reading a roster file; {@code malformed} counts lines that could not be parsed and were skipped.
+     */
+    public record ReadResult(GuildRoster roster, int lines, int malformed) {
+    }
+
+    public static int lineCount(GuildSnapshot snapshot) {
+        int lines = 0;
+        for (GuildSnapshot.GuildView guild : snapshot.guilds().values()) {
+            lines += guild.players().size() + guild.factions().size();
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the snapshot to {@code file} through a temporary file, so a failed export never leaves a truncated file.
+     * {@code progress} receives the number of lines written after every chunk.
+     */
+    public static int write(GuildSnapshot snapshot, Path file, IntConsumer progress) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int lines = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (GuildSnapshot.GuildView guild : snapshot.guilds().values()) {
+                for (UUID player : guild.players()) {
+                    JsonObject line = new JsonObject();
+                    line.addProperty("guild", guild.name().name());
+                    line.addProperty("player", player.toString());
+                    lines = writeLine(writer, line, lines, progress);
+                }
+            }
+            for (GuildSnapshot.GuildView guild : snapshot.guilds().values()) {
+                for (GuildSnapshot.FactionView faction : guild.factions()) {
+                    JsonObject line = new JsonObject();
+                    line.addProperty("guild", guild.name().name());
+                    line.addProperty("faction", faction.name());
+                    line.addProperty("leader", faction.leader().toString());
+                    JsonArray players = new JsonArray(faction.players().size());
+                    faction.players().forEach(player -> players.add(player.toString()));
+                    line.add("players", players);
+                    lines = writeLine(writer, line, lines, progress);
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return lines;
+    }
+
+    private static int writeLine(BufferedWriter writer, JsonObject line, int lines, IntConsumer progress) throws IOException {
+        writer.write(GSON.toJson(line));
+        writer.newLine();
+        lines++;
+        if (lines % CHUNK_SIZE == 0) {
+            progress.accept(lines);
+        }
+        return lines;
+    }
+
+    /**
+     * Parses {@code file} into a roster without applying it. {@code progress} receives the number of lines read after
+     * every chunk.
+     */
+    public static ReadResult read(Path file, IntConsumer progress) throws IOException {
+        Map<UUID, GuildName> members = new LinkedHashMap<>();
+        List<GuildRoster.FactionEntry> factions = new ArrayList<>();
+        int lines = 0;
+        int malformed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                if (!text.isBlank()) {
+                    try {
+                        parse(JsonParser.parseString(text).getAsJsonObject(), members, factions);
+                    } catch (JsonParseException | IllegalStateException | IllegalArgumentException | NullPointerException e) {
+                        malformed++;
+                    }
+                }
+                lines++;
+                if (lines % CHUNK_SIZE == 0) {
+                    progress.accept(lines);
+                }
+            }
+        }
+        return new ReadResult(new GuildRoster(members, factions), lines, malformed);
+    }
+
+    private static void parse(JsonObject line, Map<UUID, GuildName> members, List<GuildRoster.FactionEntry> factions) {
+        GuildName guild = GuildName.valueOf(line.get("guild").getAsString().toUpperCase(Locale.ROOT));
+        if (line.has("player")) {
+            members.put(UUID.fromString(line.get("player").getAsString()), guild);
+            return;
+        }
+        List<UUID> players = new ArrayList<>();
+        for (JsonElement player : line.getAsJsonArray("players")) {
+            players.add(UUID.fromString(player.getAsString()));
+        }
+        factions.add(new GuildRoster.FactionEntry(guild, line.get("faction").getAsString(),
+                UUID.fromString(line.get("leader").getAsString()), players));
+    }
+}
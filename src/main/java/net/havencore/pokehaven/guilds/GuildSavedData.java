@@ -2,28 +2,43 @@ package net.havencore.pokehaven.guilds;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
-import net.havencore.pokehaven.guilds.exceptions.*;
+import net.havencore.pokehaven.core.guilds.Faction;
+import net.havencore.pokehaven.core.guilds.Guild;
+import net.havencore.pokehaven.core.guilds.GuildName;
+import net.havencore.pokehaven.core.guilds.GuildPresence;
+import net.havencore.pokehaven.core.guilds.GuildRoster;
+import net.havencore.pokehaven.core.guilds.GuildSnapshot;
+import net.havencore.pokehaven.core.guilds.GuildStore;
+import net.havencore.pokehaven.core.guilds.GuildTraceRecorder;
+import net.havencore.pokehaven.core.guilds.GuildTraceReplay;
+import net.havencore.pokehaven.core.metrics.Gauge;
+import net.havencore.pokehaven.core.metrics.HeapSize;
+import net.havencore.pokehaven.core.metrics.LatencyHistogram;
+import net.havencore.pokehaven.core.metrics.Metrics;
+import net.havencore.pokehaven.metrics.GuildPersistenceEvent;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtOps;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.world.level.saveddata.SavedData;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.saveddata.SavedData;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Persists the world's {@link GuildStore} as {@code pokehaven_guilds} saved data. Guild logic lives in the store, in the
+ * Minecraft-free {@code guild-core} project; this class adds the NBT codecs and the {@code *Save} variants that also
+ * mark the data dirty, and otherwise delegates.
+ */
 public class GuildSavedData extends SavedData {
-    private final EnumMap<GuildName, Guild> guilds = new EnumMap<>(GuildName.class);
-    private final ConcurrentHashMap<UUID, GuildName> playerGuildMap = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, String> playerFactionMap = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, GuildName> factionNameToGuildMap = new ConcurrentHashMap<>();
+    private final GuildStore store;
 
-    private final ReentrantLock playerGuildLock = new ReentrantLock();
-    private final ReentrantLock playerFactionLock = new ReentrantLock();
-    private final ReentrantLock factionNameLock = new ReentrantLock();
+    private static final LatencyHistogram SAVE_TIME = Metrics.histogram("guild.save");
+    private static final LatencyHistogram LOAD_TIME = Metrics.histogram("guild.load");
+    private static final Gauge SAVE_BYTES = Metrics.gauge("guild.save.bytes");
 
     // UUID codec
     public static final Codec<UUID> UUID_CODEC = Codec.STRING.xmap(UUID::fromString, UUID::toString);
@@ -52,84 +67,110 @@ public class GuildSavedData extends SavedData {
             GUILD_CODEC
     );
 
+    // Shared so that get(), which runs on every membership read, does not allocate.
+    private static final SavedData.Factory<GuildSavedData> FACTORY =
+            new SavedData.Factory<>(GuildSavedData::create, GuildSavedData::load);
+
     public GuildSavedData() {
-        for(GuildName name : GuildName.values()) {
-            guilds.put(name, new Guild(name));
-        }
+        this(new GuildStore());
+    }
+
+    private GuildSavedData(GuildStore store) {
+        this.store = store;
     }
 
     public static GuildSavedData create(){
         return new GuildSavedData();
     }
     public static GuildSavedData load(CompoundTag tag, HolderLookup.Provider registries) {
+        GuildPersistenceEvent event = GuildPersistenceEvent.start();
+        long start = Metrics.start();
         var result = ALL_GUILDS_CODEC.parse(NbtOps.INSTANCE, tag.get("Guilds"));
-        GuildSavedData data = GuildSavedData.create();
-        result.resultOrPartial(System.err::println).ifPresent(map -> {
-            for (Map.Entry<GuildName, Guild> e : map.entrySet()) {
-                data.guilds.put(e.getKey(), e.getValue());
-                for (UUID player : e.getValue().getPlayers()) {
-                    data.playerGuildMap.put(player, e.getKey());
-                }
-                for (Faction faction : e.getValue().getFactions()) {
-                    String factionKey = faction.getName().toLowerCase(Locale.ROOT);
-                    data.factionNameToGuildMap.put(factionKey, e.getKey());
-                    for (UUID member : faction.getPlayers()) {
-                        data.playerFactionMap.put(member, factionKey);
-                    }
-                }
-            }
-        });
+        GuildSavedData data = new GuildSavedData(GuildStore.of(result.resultOrPartial(System.err::println).orElse(Map.of())));
+        LOAD_TIME.recordSince(start);
+        event.finish("load", event.shouldCommit() ? tag.sizeInBytes() : 0);
         return data;
     }
 
     @Override
     public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
-        ALL_GUILDS_CODEC.encodeStart(NbtOps.INSTANCE, this.guilds)
+        GuildPersistenceEvent event = GuildPersistenceEvent.start();
+        long start = Metrics.start();
+        ALL_GUILDS_CODEC.encodeStart(NbtOps.INSTANCE, store.getGuilds())
                 .resultOrPartial(System.err::println)
                 .ifPresent(guildsTag -> tag.put("Guilds", guildsTag));
+        SAVE_TIME.recordSince(start);
+        if (Metrics.enabled() || event.shouldCommit()) {
+            long bytes = tag.sizeInBytes();
+            SAVE_BYTES.set(bytes);
+            event.finish("save", bytes);
+        }
         return tag;
     }
 
+    /**
+     * Size in bytes of the guilds tag {@link #save} would write for {@code store}, e.g. to report the save sizes of a
+     * {@link GuildTraceReplay}.
+     */
+    public static int saveSize(GuildStore store) {
+        return ALL_GUILDS_CODEC.encodeStart(NbtOps.INSTANCE, store.getGuilds()).result()
+                .map(tag -> tag.sizeInBytes()).orElse(0);
+    }
+
     // === Access ===
 
     public static GuildSavedData get(MinecraftServer server) {
         ServerLevel overworld = server.getLevel(Level.OVERWORLD);
         assert overworld != null;
-        return overworld.getDataStorage().computeIfAbsent(
-                new SavedData.Factory<>(GuildSavedData::create, GuildSavedData::load),
-                "pokehaven_guilds"
-        );
+        return overworld.getDataStorage().computeIfAbsent(FACTORY, "pokehaven_guilds");
+    }
+
+    /**
+     * The store this data persists. Mutating it directly does not mark the data dirty.
+     */
+    public GuildStore store() {
+        return store;
+    }
+
+    /**
+     * See {@link GuildStore#presence()}; kept up to date by {@link GuildPresenceTracker}.
+     */
+    public GuildPresence presence() {
+        return store.presence();
     }
 
     public Map<GuildName, Guild> getGuilds() {
-        return Collections.unmodifiableMap(new EnumMap<>(this.guilds));
+        return store.getGuilds();
+    }
+
+    /**
+     * See {@link GuildStore#getVersion()}.
+     */
+    public long getVersion() {
+        return store.getVersion();
+    }
+
+    /**
+     * See {@link GuildStore#snapshot()}.
+     */
+    public GuildSnapshot snapshot() {
+        return store.snapshot();
     }
 
     // === Guild Membership ===
 
     /** Returns the GuildName the player belongs to, or null if none. */
     public GuildName getGuildOfPlayer(UUID player) {
-        return playerGuildMap.get(player);
+        return store.getGuildOfPlayer(player);
     }
 
     /** Returns the Guild instance for the player, or empty if none. */
     public Optional<Guild> getGuildForPlayer(UUID player) {
-        GuildName name = playerGuildMap.get(player);
-        if (name == null) return Optional.empty();
-        return Optional.ofNullable(guilds.get(name));
+        return store.getGuildForPlayer(player);
     }
 
     public void addPlayerToGuild(GuildName guild, UUID player) {
-        playerGuildLock.lock();
-        try {
-            if (playerGuildMap.containsKey(player)) {
-                throw new GuildMembershipException("Player already in a guild");
-            }
-            playerGuildMap.put(player, guild);
-            guilds.get(guild).addPlayer(player);
-        } finally {
-            playerGuildLock.unlock();
-        }
+        store.addPlayerToGuild(guild, player);
     }
 
     public void addPlayerToGuildSave(GuildName guild, UUID player) {
@@ -137,16 +178,11 @@ public class GuildSavedData extends SavedData {
         setDirty();
     }
 
+    /**
+     * See {@link GuildStore#removePlayerFromGuild(GuildName, UUID)}.
+     */
     public void removePlayerFromGuild(GuildName guild, UUID player) {
-        playerGuildLock.lock();
-        try {
-            if (!playerGuildMap.containsKey(player)) return;
-            if (playerGuildMap.get(player) != guild) return;
-            playerGuildMap.remove(player);
-            guilds.get(guild).removePlayer(player);
-        } finally {
-            playerGuildLock.unlock();
-        }
+        store.removePlayerFromGuild(guild, player);
     }
 
     public void removePlayerFromGuildSave(GuildName guild, UUID player) {
@@ -157,30 +193,11 @@ public class GuildSavedData extends SavedData {
     // === Faction Creation ===
 
     public void createFaction(GuildName guild, String factionName, UUID leader, Collection<UUID> players) {
-        factionNameLock.lock();
-        try {
-            String key = factionName.toLowerCase(Locale.ROOT);
-            if (factionNameToGuildMap.containsKey(key)) {
-                throw new FactionNamingException("Faction name already exists globally");
-            }
-
-            if(!players.contains(leader))
-                players.add(leader);
-            Faction faction = new Faction(factionName, leader, players);
-            Guild g = guilds.get(guild);
-            g.addFaction(faction);
-
-            factionNameToGuildMap.put(key, guild);
-            for (UUID player : players) {
-                playerFactionMap.put(player, key);
-            }
-        } finally {
-            factionNameLock.unlock();
-        }
+        store.createFaction(guild, factionName, leader, players);
     }
 
     public void createFaction(GuildName guild, String name, UUID leader) {
-        createFaction(guild, name, leader, List.of(leader));
+        store.createFaction(guild, name, leader);
     }
 
     public void createFactionSave(GuildName guild, String factionName, UUID leader, Collection<UUID> players) {
@@ -189,21 +206,7 @@ public class GuildSavedData extends SavedData {
     }
 
     public void removeFaction(GuildName guild, String factionName) {
-        factionNameLock.lock();
-        try {
-            Guild g = guilds.get(guild);
-            Optional<Faction> opt = g.getFactionByName(factionName);
-            if (opt.isEmpty()) throw new FactionNotFoundException("Faction does not exist");
-            Faction f = opt.get();
-
-            g.removeFaction(f);
-            factionNameToGuildMap.remove(f.getName().toLowerCase(Locale.ROOT));
-            for (UUID player : f.getPlayers()) {
-                playerFactionMap.remove(player);
-            }
-        } finally {
-            factionNameLock.unlock();
-        }
+        store.removeFaction(guild, factionName);
     }
 
     public void removeFactionSave(GuildName guild, String factionName) {
@@ -213,26 +216,32 @@ public class GuildSavedData extends SavedData {
 
     // === Faction Membership ===
 
+    /**
+     * See {@link GuildStore#findFactionNames(String, int)}.
+     */
+    public List<String> findFactionNames(String prefix, int limit) {
+        return store.findFactionNames(prefix, limit);
+    }
+
+    /**
+     * See {@link GuildStore#findSimilarFactionNames(String, int, int)}.
+     */
+    public List<String> findSimilarFactionNames(String query, int maxDistance, int limit) {
+        return store.findSimilarFactionNames(query, maxDistance, limit);
+    }
+
+    /** Returns the lower-case name of the player's faction, or null if none. */
     public String getFactionOfPlayer(UUID player){
-        return playerFactionMap.get(player);
+        return store.getFactionOfPlayer(player);
+    }
+
+    /** Returns the player's faction, or empty if none. */
+    public Optional<Faction> getFactionForPlayer(UUID player) {
+        return store.getFactionForPlayer(player);
     }
+
     public void addPlayerToFaction(GuildName guild, String factionName, UUID player) {
-        playerFactionLock.lock();
-        try {
-            Guild g = guilds.get(guild);
-            Optional<Faction> of = g.getFactionByName(factionName);
-            if (of.isEmpty()) throw new FactionNotFoundException("Faction not found");
-            Faction f = of.get();
-
-            if (!g.containsPlayer(player)) {
-                throw new FactionMembershipException("Player not in guild");
-            }
-
-            f.addPlayer(player);
-            playerFactionMap.put(player, f.getName().toLowerCase(Locale.ROOT));
-        } finally {
-            playerFactionLock.unlock();
-        }
+        store.addPlayerToFaction(guild, factionName, player);
     }
 
     public void addPlayerToFactionSave(GuildName guild, String factionName, UUID player) {
@@ -241,23 +250,7 @@ public class GuildSavedData extends SavedData {
     }
 
     public void removePlayerFromFaction(GuildName guild, String factionName, UUID player) {
-        playerFactionLock.lock();
-        try {
-            Guild g = guilds.get(guild);
-            Optional<Faction> of = g.getFactionByName(factionName);
-            if (of.isEmpty()) throw new FactionNotFoundException("Faction not found");
-            Faction f = of.get();
-
-            String key = factionName.toLowerCase(Locale.ROOT);
-            if (!key.equals(playerFactionMap.get(player))) {
-                throw new FactionMembershipException("Player is not in faction");
-            }
-
-            f.removePlayer(player);
-            playerFactionMap.remove(player);
-        } finally {
-            playerFactionLock.unlock();
-        }
+        store.removePlayerFromFaction(guild, factionName, player);
     }
 
     public void removePlayerFromFactionSave(GuildName guild, String factionName, UUID player) {
@@ -268,11 +261,7 @@ public class GuildSavedData extends SavedData {
     // === Faction Leader ===
 
     public void changeFactionLeader(GuildName guild, String factionName, UUID newLeader) {
-        Guild g = guilds.get(guild);
-        Optional<Faction> of = g.getFactionByName(factionName);
-        if (of.isEmpty()) throw new FactionNotFoundException("Faction not found");
-        Faction f = of.get();
-        f.changeLeader(newLeader);
+        store.changeFactionLeader(guild, factionName, newLeader);
     }
 
     public void changeFactionLeaderSave(GuildName guild, String factionName, UUID newLeader) {
@@ -283,33 +272,55 @@ public class GuildSavedData extends SavedData {
     // === Faction Rename ===
 
     public void renameFaction(GuildName guild, String oldName, String newName) {
-        factionNameLock.lock();
-        try {
-            String newKey = newName.toLowerCase(Locale.ROOT);
-            if (factionNameToGuildMap.containsKey(newKey)) {
-                throw new FactionNamingException("Faction name already exists globally: " + newName);
-            }
-
-            Guild g = guilds.get(guild);
-            Optional<Faction> of = g.getFactionByName(oldName);
-            if (of.isEmpty()) throw new FactionNotFoundException("Faction not found");
-
-            Faction f = of.get();
-            g.renameFaction(oldName, newName);
-
-            factionNameToGuildMap.remove(oldName.toLowerCase(Locale.ROOT));
-            factionNameToGuildMap.put(newKey, guild);
-
-            for (UUID player : f.getPlayers()) {
-                playerFactionMap.put(player, newKey);
-            }
-        } finally {
-            factionNameLock.unlock();
-        }
+        store.renameFaction(guild, oldName, newName);
     }
 
     public void renameFactionSave(GuildName guild, String oldName, String newName) {
         renameFaction(guild, oldName, newName);
         setDirty();
     }
+
+    // === Bulk Import ===
+
+    /**
+     * See {@link GuildStore#importRoster(GuildRoster)}; marks the data dirty once if anything was added.
+     */
+    public GuildRoster.ImportResult importRoster(GuildRoster roster) {
+        GuildRoster.ImportResult result = store.importRoster(roster);
+        if (result.membersAdded() > 0 || result.factionsAdded() > 0) {
+            setDirty();
+        }
+        return result;
+    }
+
+    // === Diagnostics ===
+
+    /**
+     * See {@link GuildStore#estimateFootprint()}.
+     */
+    public List<HeapSize.Estimate> estimateFootprint() {
+        return store.estimateFootprint();
+    }
+
+    /**
+     * See {@link GuildStore#startTrace(Path)}.
+     */
+    public GuildTraceRecorder startTrace(Path file) throws IOException {
+        return store.startTrace(file);
+    }
+
+    public GuildTraceRecorder stopTrace() {
+        return store.stopTrace();
+    }
+
+    public GuildTraceRecorder getTrace() {
+        return store.getTrace();
+    }
+
+    /**
+     * See {@link GuildStore#findInvariantViolations()}.
+     */
+    public List<String> findInvariantViolations() {
+        return store.findInvariantViolations();
+    }
 }
@@ -0,0 +1,41 @@
+package net.havencore.pokehaven.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for serializing or deserializing the guild saved data.
+ */
+@Name("pokehaven.GuildPersistence")
+@Label("Guild Save/Load")
+@Category({"PokeHaven", "Guilds"})
+@Description("Encoding the guild saved data to NBT or decoding it back")
+@StackTrace(false)
+public final class GuildPersistenceEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    public static GuildPersistenceEvent start() {
+        GuildPersistenceEvent event = new GuildPersistenceEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String operation, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package net.havencore.pokehaven.metrics;
+
+import com.mojang.logging.LogUtils;
+import net.havencore.pokehaven.Config;
+import net.havencore.pokehaven.PokeHaven;
+import net.havencore.pokehaven.core.metrics.LatencyHistogram;
+import net.havencore.pokehaven.core.metrics.Metrics;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.slf4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Logs one line of metrics every {@link Config#metricsLogIntervalSeconds}. Counters are reported as the change since the
+ * previous line along with the average per tick, so e.g. attachment syncs per tick can be read straight off the log.
+ */
+@EventBusSubscriber(modid = PokeHaven.MODID)
+public final class MetricsReporter {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final Map<String, Long> LAST_COUNTS = new HashMap<>();
+    private static long ticksSinceReport;
+
+    private MetricsReporter() {
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        int interval = Config.metricsLogIntervalSeconds;
+        if (!Metrics.enabled() || interval <= 0) {
+            return;
+        }
+        if (++ticksSinceReport < interval * 20L) {
+            return;
+        }
+        LOGGER.info("PokeHaven metrics: {}", line(ticksSinceReport));
+        ticksSinceReport = 0;
+    }
+
+    private static String line(long ticks) {
+        StringJoiner line = new StringJoiner(", ");
+        Metrics.counters().forEach((name, counter) -> {
+            long count = counter.get();
+            long delta = count - LAST_COUNTS.getOrDefault(name, 0L);
+            LAST_COUNTS.put(name, count);
+            line.add(name + "=+" + delta + String.format(" (%.2f/tick)", (double) delta / ticks));
+        });
+        Metrics.gauges().forEach((name, gauge) -> line.add(name + "=" + gauge.get()));
+        Metrics.histograms().forEach((name, histogram) -> {
+            LatencyHistogram.Summary summary = histogram.summary();
+            if (summary.count() > 0) {
+                line.add(name + "[p50=" + Metrics.formatNanos(summary.p50()) + " p99="
+                        + Metrics.formatNanos(summary.p99()) + " max=" + Metrics.formatNanos(summary.max()) + "]");
+            }
+        });
+        return line.toString();
+    }
+
+    /**
+     * Forgets the previous line's counter values, e.g. after {@link Metrics#reset()}.
+     */
+    public static void restart() {
+        LAST_COUNTS.clear();
+        ticksSinceReport = 0;
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        restart();
+    }
+}
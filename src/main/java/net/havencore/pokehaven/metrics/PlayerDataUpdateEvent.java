@@ -0,0 +1,58 @@
+package net.havencore.pokehaven.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * JFR event for committing a new player data attachment, including the sync to the client when there is one.
+ */
+@Name("pokehaven.PlayerDataUpdate")
+@Label("Player Data Update")
+@Category({"PokeHaven", "Player Data"})
+@Description("A player data attachment written and, for online players, synced to the client")
+@StackTrace(false)
+public final class PlayerDataUpdateEvent extends Event {
+    @Label("Segment")
+    String segment;
+
+    @Label("Key")
+    String key;
+
+    @Label("Segment Size")
+    @Description("Number of values stored in the segment after the update")
+    int size;
+
+    @Label("Synced")
+    boolean synced;
+
+    public static PlayerDataUpdateEvent start() {
+        PlayerDataUpdateEvent event = new PlayerDataUpdateEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and returns whether the recording wants it. Only then should the caller work out the fields and
+     * pass them to {@link #record}.
+     */
+    public boolean stop() {
+        end();
+        return shouldCommit();
+    }
+
+    /**
+     * Commits the event after {@link #stop()} returned true. {@code key} is {@code null} for whole-segment writes.
+     */
+    public void record(Object segment, @Nullable String key, int size, boolean synced) {
+        this.segment = String.valueOf(segment);
+        this.key = key;
+        this.size = size;
+        this.synced = synced;
+        commit();
+    }
+}
@@ -0,0 +1,73 @@
+package net.havencore.pokehaven.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel over a monotonically increasing tick counter. Scheduling is O(1) and advancing by one tick only
+ * visits the entries hashed to that bucket; entries due in a later rotation stay where they are. Not thread-safe.
+ */
+public final class TimingWheel<E> {
+    private final List<Entry<E>>[] buckets;
+    private final int mask;
+    private long cursor;
+    private int size;
+
+    /**
+     * @param bucketCount number of buckets, rounded up to a power of two.
+     * @param startTick   the first tick that {@link #advance} will process.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int bucketCount, long startTick) {
+        int capacity = Integer.highestOneBit(Math.max(1, bucketCount - 1)) << 1;
+        this.buckets = (List<Entry<E>>[]) new List<?>[capacity];
+        for (int i = 0; i < capacity; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.mask = capacity - 1;
+        this.cursor = startTick;
+    }
+
+    /**
+     * Schedules {@code element} to be handed out by the first {@link #advance} that reaches {@code deadline}. Deadlines
+     * in the past fire on the next advance.
+     */
+    public void schedule(E element, long deadline) {
+        long tick = Math.max(deadline, cursor);
+        buckets[(int) (tick & mask)].add(new Entry<>(element, deadline));
+        size++;
+    }
+
+    /**
+     * Processes every tick up to and including {@code now}, passing each element whose deadline has been reached to
+     * {@code expired}. After a gap longer than one rotation each bucket is visited once.
+     */
+    public void advance(long now, Consumer<? super E> expired) {
+        if (now < cursor) {
+            return;
+        }
+        long steps = Math.min(now - cursor + 1, buckets.length);
+        for (long step = 0; step < steps; step++) {
+            List<Entry<E>> bucket = buckets[(int) ((cursor + step) & mask)];
+            for (int i = bucket.size() - 1; i >= 0; i--) {
+                Entry<E> entry = bucket.get(i);
+                if (entry.deadline() <= now) {
+                    int last = bucket.size() - 1;
+                    bucket.set(i, bucket.get(last));
+                    bucket.remove(last);
+                    size--;
+                    expired.accept(entry.element());
+                }
+            }
+        }
+        cursor = now + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private record Entry<E>(E element, long deadline) {
+    }
+}
@@ -0,0 +1,41 @@
+package net.havencore.pokehaven.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as a generic cell rate algorithm: the whole state is the time at which the bucket
+ * will next be full, updated with a single compare-and-set. Equivalent to a bucket holding {@code burst} tokens that
+ * refills at {@code permitsPerMinute}.
+ */
+public final class TokenBucket {
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double permitsPerMinute, int burst, long nowNanos) {
+        if (permitsPerMinute <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.MINUTES.toNanos(1) / permitsPerMinute);
+        this.capacityNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is available at {@code nowNanos} (a {@link System#nanoTime()} reading).
+     */
+    public boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long base = current - nowNanos < 0 ? nowNanos : current;
+            long next = base + intervalNanos;
+            if (next - nowNanos > capacityNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package net.havencore.pokehaven.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory for the background pools used to keep slow work off the server thread.
+ */
+public final class WorkerThreads {
+    private WorkerThreads() {
+    }
+
+    /**
+     * Creates a fixed pool of daemon threads named {@code PokeHaven <name> #n}, so a pool that is never shut down
+     * cannot keep the JVM alive.
+     */
+    public static ExecutorService newPool(String name, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "PokeHaven " + name + " #" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}